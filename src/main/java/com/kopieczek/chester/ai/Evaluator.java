@@ -0,0 +1,17 @@
+package com.kopieczek.chester.ai;
+
+import com.kopieczek.chester.core.Board;
+import com.kopieczek.chester.core.Color;
+
+/**
+ * Statically scores a position. Higher is better for the given color, and the score for one color should be the
+ * negation of the score for the other.
+ */
+public interface Evaluator {
+    int evaluate(Board board, Color color);
+
+    /**
+     * Returns the score for a side that is stalemated, in the same units as {@link #evaluate(Board, Color)}.
+     */
+    int getStalemateScore();
+}
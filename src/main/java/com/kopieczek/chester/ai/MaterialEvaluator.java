@@ -0,0 +1,24 @@
+package com.kopieczek.chester.ai;
+
+import com.kopieczek.chester.core.Board;
+import com.kopieczek.chester.core.Color;
+import com.kopieczek.chester.core.PieceValues;
+
+/**
+ * Scores a position purely on the material each side has left, as counted by {@link PieceValues}. The board keeps
+ * each side's total up to date as pieces move, so this is just a subtraction.
+ */
+public class MaterialEvaluator implements Evaluator {
+    // Stalemate is scored as a loss of five pawns for the side to move, as in BasicMinMax
+    private static final int STALEMATE = -5;
+
+    @Override
+    public int evaluate(Board board, Color color) {
+        return board.getMaterial(color) - board.getMaterial(color.inverse());
+    }
+
+    @Override
+    public int getStalemateScore() {
+        return STALEMATE;
+    }
+}
@@ -0,0 +1,104 @@
+package com.kopieczek.chester.ai;
+
+import com.kopieczek.chester.core.Board;
+import com.kopieczek.chester.core.Color;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size cache of {@link PawnStructure} results, keyed by {@link Board#getPawnKey()}. The same few pawn
+ * configurations come up again and again across a search tree, since most moves do not move a pawn, so nearly every
+ * lookup should hit.
+ *
+ * Each entry holds the pawn key, the structure score and the mask of passed pawns, in parallel arrays. A new entry
+ * always replaces whatever shared its slot. An empty slot reads as the entry for a position with no pawns at all, which
+ * is correct: such a position scores zero and has no passed pawns.
+ *
+ * Not thread-safe; each evaluator needs its own.
+ */
+public class PawnHashTable {
+    private final long[] keys;
+    private final int[] scores;
+    private final long[] passedPawns;
+    private final int mask;
+
+    private long probes;
+    private long hits;
+
+    /**
+     * Creates a table with room for the given number of entries, rounded down to a power of two.
+     */
+    public PawnHashTable(int entries) {
+        if (entries < 1) {
+            throw new IllegalArgumentException("Pawn hash table needs at least one entry, not " + entries);
+        }
+        int size = Integer.highestOneBit(entries);
+        keys = new long[size];
+        scores = new int[size];
+        passedPawns = new long[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Returns the slot holding the pawn structure of the given board, evaluating and storing it first on a miss. Use
+     * {@link #getScore(int)} and {@link #getPassedPawns(int)} to read the slot, before the next call to this method.
+     */
+    public int lookup(Board board) {
+        long key = board.getPawnKey();
+        int slot = (int) key & mask;
+        probes++;
+        if (keys[slot] == key) {
+            hits++;
+            return slot;
+        }
+
+        long whitePawns = board.getPawns(Color.WHITE);
+        long blackPawns = board.getPawns(Color.BLACK);
+        keys[slot] = key;
+        scores[slot] = PawnStructure.evaluate(whitePawns, blackPawns);
+        passedPawns[slot] = PawnStructure.findPassedPawns(whitePawns, blackPawns);
+        return slot;
+    }
+
+    /**
+     * Returns the pawn structure score in the given slot, from white's point of view.
+     */
+    public int getScore(int slot) {
+        return scores[slot];
+    }
+
+    /**
+     * Returns the mask of passed pawns, of both colors, in the given slot.
+     */
+    public long getPassedPawns(int slot) {
+        return passedPawns[slot];
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(scores, 0);
+        Arrays.fill(passedPawns, 0);
+        resetStats();
+    }
+
+    public int getEntryCount() {
+        return keys.length;
+    }
+
+    public long getProbeCount() {
+        return probes;
+    }
+
+    public long getHitCount() {
+        return hits;
+    }
+
+    public double getHitRate() {
+        return (probes == 0) ? 0 : (double) hits / probes;
+    }
+
+    public void resetStats() {
+        probes = 0;
+        hits = 0;
+    }
+}
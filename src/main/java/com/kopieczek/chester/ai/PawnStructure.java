@@ -0,0 +1,97 @@
+package com.kopieczek.chester.ai;
+
+import com.kopieczek.chester.core.Bitboards;
+import com.kopieczek.chester.core.Color;
+
+/**
+ * Evaluation terms that depend only on where the pawns stand, so that they can be cached by pawn key in a
+ * {@link PawnHashTable}. Scores are in centipawns from white's point of view.
+ *
+ * Doubled pawns (more than one of a side's pawns on a file) and isolated pawns (none of a side's pawns on either
+ * neighbouring file) are penalised. Passed pawns, with no enemy pawn ahead of them on their own or a neighbouring file,
+ * earn a bonus that grows as they advance.
+ */
+public class PawnStructure {
+    private static final int DOUBLED_PENALTY = 10;
+    private static final int ISOLATED_PENALTY = 15;
+
+    // Indexed by how many ranks the pawn has advanced from its own back rank
+    private static final int[] PASSED_BONUS = {0, 5, 10, 20, 35, 60, 100, 0};
+
+    private static final long[] ADJACENT_FILES = new long[8];
+
+    // Indexed by color, then cell: the cells ahead of a pawn on its own and neighbouring files
+    private static final long[][] FRONT_SPANS = new long[2][64];
+
+    static {
+        for (int file = 0; file < 8; file++) {
+            long fileMask = Bitboards.FILE_A << file;
+            ADJACENT_FILES[file] = ((fileMask << 1) & ~Bitboards.FILE_A) | ((fileMask >>> 1) & ~Bitboards.FILE_H);
+        }
+        for (int cell = 0; cell < 64; cell++) {
+            int file = cell % 8;
+            long files = (Bitboards.FILE_A << file) | ADJACENT_FILES[file];
+            long ranksAbove = (cell >= 56) ? 0 : -1L << ((cell / 8 + 1) * 8);
+            long ranksBelow = (1L << ((cell / 8) * 8)) - 1;
+            FRONT_SPANS[Color.WHITE.ordinal()][cell] = files & ranksAbove;
+            FRONT_SPANS[Color.BLACK.ordinal()][cell] = files & ranksBelow;
+        }
+    }
+
+    /**
+     * Returns the pawn structure score for the given pawns, from white's point of view.
+     */
+    public static int evaluate(long whitePawns, long blackPawns) {
+        return evaluateSide(Color.WHITE, whitePawns, blackPawns) - evaluateSide(Color.BLACK, blackPawns, whitePawns);
+    }
+
+    /**
+     * Returns a mask of the passed pawns of both colors.
+     */
+    public static long findPassedPawns(long whitePawns, long blackPawns) {
+        return findPassedPawns(Color.WHITE, whitePawns, blackPawns) |
+               findPassedPawns(Color.BLACK, blackPawns, whitePawns);
+    }
+
+    /**
+     * Returns the bonus for a passed pawn of the given color on the given cell.
+     */
+    public static int getPassedBonus(Color color, int cell) {
+        return PASSED_BONUS[getRelativeRank(color, cell)];
+    }
+
+    private static int evaluateSide(Color color, long ownPawns, long enemyPawns) {
+        int score = 0;
+        for (int file = 0; file < 8; file++) {
+            long filePawns = ownPawns & (Bitboards.FILE_A << file);
+            if (filePawns == 0) {
+                continue;
+            }
+            int count = Long.bitCount(filePawns);
+            score -= DOUBLED_PENALTY * (count - 1);
+            if ((ownPawns & ADJACENT_FILES[file]) == 0) {
+                score -= ISOLATED_PENALTY * count;
+            }
+        }
+
+        for (long passed = findPassedPawns(color, ownPawns, enemyPawns); passed != 0; passed &= passed - 1) {
+            score += getPassedBonus(color, Long.numberOfTrailingZeros(passed));
+        }
+        return score;
+    }
+
+    private static long findPassedPawns(Color color, long ownPawns, long enemyPawns) {
+        long passed = 0;
+        for (long pawns = ownPawns; pawns != 0; pawns &= pawns - 1) {
+            int cell = Long.numberOfTrailingZeros(pawns);
+            if ((FRONT_SPANS[color.ordinal()][cell] & enemyPawns) == 0) {
+                passed |= Bitboards.bit(cell);
+            }
+        }
+        return passed;
+    }
+
+    private static int getRelativeRank(Color color, int cell) {
+        return (color == Color.WHITE) ? cell / 8 : 7 - cell / 8;
+    }
+}
@@ -0,0 +1,56 @@
+package com.kopieczek.chester.ai;
+
+import com.kopieczek.chester.core.Board;
+import com.kopieczek.chester.core.Color;
+
+/**
+ * Adds {@link PawnStructure} terms to the {@link PieceSquareEvaluator}'s score, looking them up in a
+ * {@link PawnHashTable} rather than working them out afresh at every leaf.
+ *
+ * On top of the cached structure score, a passed pawn whose next cell is empty earns half its passed-pawn bonus again.
+ * Whether that cell is empty depends on more than the pawns, so this part cannot be cached, but the cached mask of
+ * passed pawns means only those few pawns need checking.
+ */
+public class PawnStructureEvaluator extends PieceSquareEvaluator {
+    private static final int DEFAULT_ENTRIES = 1 << 14;
+
+    private final PawnHashTable pawnHashTable;
+
+    public PawnStructureEvaluator() {
+        this(new PawnHashTable(DEFAULT_ENTRIES));
+    }
+
+    /**
+     * @param pawnHashTable the table to cache pawn structure in, which must not be shared with another thread
+     */
+    public PawnStructureEvaluator(PawnHashTable pawnHashTable) {
+        this.pawnHashTable = pawnHashTable;
+    }
+
+    public PawnHashTable getPawnHashTable() {
+        return pawnHashTable;
+    }
+
+    @Override
+    public int evaluate(Board board, Color color) {
+        int slot = pawnHashTable.lookup(board);
+        int pawnScore = pawnHashTable.getScore(slot);
+        long passed = pawnHashTable.getPassedPawns(slot);
+        pawnScore += getUnblockedBonus(board, Color.WHITE, passed) - getUnblockedBonus(board, Color.BLACK, passed);
+
+        return super.evaluate(board, color) + ((color == Color.WHITE) ? pawnScore : -pawnScore);
+    }
+
+    private static int getUnblockedBonus(Board board, Color color, long passed) {
+        int bonus = 0;
+        int step = (color == Color.WHITE) ? 8 : -8;
+        for (long own = passed & board.getPawns(color); own != 0; own &= own - 1) {
+            int cell = Long.numberOfTrailingZeros(own);
+            int next = cell + step;
+            if (next >= 0 && next < 64 && !board.get(next).isPresent()) {
+                bonus += PawnStructure.getPassedBonus(color, cell) / 2;
+            }
+        }
+        return bonus;
+    }
+}
@@ -0,0 +1,28 @@
+package com.kopieczek.chester.ai;
+
+import com.kopieczek.chester.core.Board;
+import com.kopieczek.chester.core.Color;
+import com.kopieczek.chester.core.PieceValues;
+
+/**
+ * Scores a position in centipawns on material plus where each piece stands, using the totals of {@link PieceValues}
+ * that the board keeps up to date as pieces move.
+ */
+public class PieceSquareEvaluator implements Evaluator {
+    private static final int CENTIPAWNS_PER_PAWN = 100;
+
+    // The same five pawns for the side to move as MaterialEvaluator scores stalemate
+    private static final int STALEMATE = -5 * CENTIPAWNS_PER_PAWN;
+
+    @Override
+    public int evaluate(Board board, Color color) {
+        Color opponent = color.inverse();
+        return CENTIPAWNS_PER_PAWN * (board.getMaterial(color) - board.getMaterial(opponent)) +
+               board.getPieceSquareScore(color) - board.getPieceSquareScore(opponent);
+    }
+
+    @Override
+    public int getStalemateScore() {
+        return STALEMATE;
+    }
+}
@@ -2,33 +2,18 @@ package com.kopieczek.chester.ai;
 
 import com.kopieczek.chester.core.Board;
 import com.kopieczek.chester.core.Color;
-import com.kopieczek.chester.core.Piece;
+import com.kopieczek.chester.core.Moves;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
 import java.util.Random;
 
 public class RandomAi implements Ai {
     private Random r = new Random();
+    private final int[] moveBuffer = new int[Moves.MAX_MOVES];
 
     @Override
     public Move getMove(Board board, Color color) {
-        List<Integer> piecesWithMoves = getPiecesWithMoves(board, color);
-        int from = piecesWithMoves.get(r.nextInt(piecesWithMoves.size()));
-        List<Integer> moves = new ArrayList<>(board.getMoves(from));
-        int to = moves.get(r.nextInt(moves.size()));
-        return new Move(from, to);
-    }
-
-    private List<Integer> getPiecesWithMoves(Board board, Color color) {
-        List<Integer> pieces = new ArrayList<>();
-        for (int cell = 0; cell < 64; cell++) {
-            Optional<Piece> maybePiece = board.get(cell);
-            if (maybePiece.isPresent() && maybePiece.get().getColor() == color && board.getMoves(cell).size() > 0) {
-                pieces.add(cell);
-            }
-        }
-        return pieces;
+        int moveCount = board.generateLegalMoves(color, moveBuffer);
+        int move = moveBuffer[r.nextInt(moveCount)];
+        return new Move(Moves.from(move), Moves.to(move));
     }
 }
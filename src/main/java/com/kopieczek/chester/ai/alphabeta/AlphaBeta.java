@@ -0,0 +1,619 @@
+package com.kopieczek.chester.ai.alphabeta;
+
+import com.kopieczek.chester.ai.Ai;
+import com.kopieczek.chester.ai.Evaluator;
+import com.kopieczek.chester.ai.MaterialEvaluator;
+import com.kopieczek.chester.ai.Move;
+import com.kopieczek.chester.core.Board;
+import com.kopieczek.chester.core.Color;
+import com.kopieczek.chester.core.Moves;
+import com.kopieczek.chester.core.StagedMoveGenerator;
+import com.kopieczek.chester.core.Zobrist;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Fail-soft alpha-beta search in negamax form, deepened iteratively up to a maximum number of plies. Checkmates score
+ * as large finite values that prefer quicker mates.
+ */
+public class AlphaBeta implements Ai {
+    public static final int MATE = 1_000_000;
+    public static final int INFINITY = MATE + 1;
+    public static final int MAX_PLY = 64;
+
+    // The clock and node budget are only consulted once per this many nodes (minus one, as a mask)
+    private static final int LIMIT_CHECK_MASK = 1023;
+
+    // A null move is searched this many plies shallower than a real one would be
+    private static final int NULL_MOVE_REDUCTION = 2;
+    private static final int NULL_MOVE_MIN_DEPTH = 3;
+
+    // The first few moves at each node are never reduced, as good move ordering puts the best move among them
+    private static final int LATE_MOVE_THRESHOLD = 3;
+    private static final int LATE_MOVE_MIN_DEPTH = 3;
+
+    // Half the width of the first aspiration window, in evaluator units; a pawn with the material evaluator
+    private static final int DEFAULT_ASPIRATION_WINDOW = 1;
+
+    private final int maxPlies;
+    private final Evaluator evaluator;
+    private final int[] rootMoves = new int[Moves.MAX_MOVES];
+    private final int[][] moveBuffers = new int[MAX_PLY][Moves.MAX_MOVES];
+    private final MoveOrdering moveOrdering = new MoveOrdering();
+    private final int[][] pvTable = new int[MAX_PLY][MAX_PLY];
+    private final int[] pvLength = new int[MAX_PLY];
+    private final boolean[] isNullMove = new boolean[MAX_PLY];
+
+    private long timeLimitMillis;
+    private long nodeLimit;
+    private TranspositionTable transpositionTable;
+    private boolean useMoveOrdering = true;
+    private boolean useQuiescence = true;
+    private boolean usePrincipalVariationSearch = true;
+    private int aspirationWindow = DEFAULT_ASPIRATION_WINDOW;
+    private boolean useNullMovePruning = true;
+    private boolean useLateMoveReductions = true;
+    private int skipSize;
+    private int skipPhase;
+    private BooleanSupplier stopSignal;
+
+    private Board board;
+    private long deadline;
+    private boolean canStop;
+    private boolean stopped;
+    private long nodeCount;
+    private int score;
+    private int completedPlies;
+    private int[] principalVariation = new int[0];
+
+    public AlphaBeta(int maxPlies) {
+        this(maxPlies, new MaterialEvaluator());
+    }
+
+    public AlphaBeta(int maxPlies, Evaluator evaluator) {
+        if (maxPlies < 1 || maxPlies >= MAX_PLY) {
+            throw new IllegalArgumentException("Search depth must be between 1 and " + (MAX_PLY - 1) + " plies");
+        }
+        this.maxPlies = maxPlies;
+        this.evaluator = evaluator;
+    }
+
+    /**
+     * Limits each search to roughly the given wall-clock time, or removes the limit if zero. The move played comes from
+     * the deepest iteration that finished, and the first iteration always runs to completion.
+     */
+    public void setTimeLimit(long millis) {
+        this.timeLimitMillis = millis;
+    }
+
+    /**
+     * Limits each search to roughly the given number of nodes, or removes the limit if zero.
+     */
+    public void setNodeLimit(long nodes) {
+        this.nodeLimit = nodes;
+    }
+
+    /**
+     * Caches results in the given table, which may be shared with other searches, or stops caching if null. Results
+     * found at greater depth than asked for then feed into the search.
+     */
+    public void setTranspositionTable(TranspositionTable transpositionTable) {
+        this.transpositionTable = transpositionTable;
+    }
+
+    /**
+     * Turns ordering of moves below the root on or off. It is on by default: the hash move, captures by MVV-LVA,
+     * killers, then quiet moves by history score (see {@link MoveOrdering}). Ordering never changes the score, but may
+     * pick a different one of several equally good moves.
+     *
+     * With ordering, quiescence and pruning all off, no table and no limits, this picks the same move as
+     * {@link com.kopieczek.chester.ai.simpleminmax.BasicMinMax} searching the same number of plies (BasicMinMax depth
+     * d searches d + 1 plies), while visiting far fewer nodes.
+     */
+    public void setMoveOrdering(boolean enabled) {
+        this.useMoveOrdering = enabled;
+    }
+
+    /**
+     * Turns the quiescence search at the horizon on or off. It is on by default, and plays out captures (or every
+     * evasion when in check) until the side to move would rather stand pat. When off, leaves are scored by the
+     * evaluator as they stand, as BasicMinMax scores them.
+     */
+    public void setQuiescence(boolean enabled) {
+        this.useQuiescence = enabled;
+    }
+
+    /**
+     * Turns principal variation search on or off. It is on by default: moves after the first are searched with a null
+     * window, and again with the full window only if they turn out better. When off, every move gets the full window.
+     */
+    public void setPrincipalVariationSearch(boolean enabled) {
+        this.usePrincipalVariationSearch = enabled;
+    }
+
+    /**
+     * Sets how far either side of the previous iteration's score the next iteration's first window reaches, in
+     * evaluator units, or turns aspiration windows off if zero.
+     */
+    public void setAspirationWindow(int width) {
+        this.aspirationWindow = width;
+    }
+
+    /**
+     * Turns null-move pruning on or off. It is on by default. It is never tried in check, twice in a row, or by a side
+     * with only king and pawns, which may be in zugzwang.
+     */
+    public void setNullMovePruning(boolean enabled) {
+        this.useNullMovePruning = enabled;
+    }
+
+    /**
+     * Turns late move reductions on or off. They are on by default, and only apply when move ordering is on: quiet
+     * moves late in the order are searched a ply shallower, and at full depth only if they beat alpha.
+     */
+    public void setLateMoveReductions(boolean enabled) {
+        this.useLateMoveReductions = enabled;
+    }
+
+    /**
+     * Makes iterative deepening skip some depths, so that searches running in parallel spread out over different depths.
+     * Depths come in runs of the given size, offset by the given phase, and every other run is skipped. The maximum
+     * depth is always searched, and a size of zero skips nothing.
+     */
+    void setIterationSkipping(int size, int phase) {
+        this.skipSize = size;
+        this.skipPhase = phase;
+    }
+
+    /**
+     * Makes this search one of several running in parallel, which stops as soon as the given signal is raised. The
+     * coordinator is then responsible for starting each new search of any shared transposition table.
+     */
+    void setStopSignal(BooleanSupplier stopSignal) {
+        this.stopSignal = stopSignal;
+    }
+
+    @Override
+    public Move getMove(Board board, Color color) {
+        this.board = board;
+        moveOrdering.newSearch(board);
+        nodeCount = 0;
+        completedPlies = 0;
+        stopped = false;
+        canStop = false;
+        deadline = (timeLimitMillis > 0) ? System.nanoTime() + timeLimitMillis * 1_000_000 : Long.MAX_VALUE;
+
+        if (transpositionTable != null && stopSignal == null) {
+            transpositionTable.newSearch();
+        }
+
+        int count = board.generateLegalMoves(color, rootMoves);
+        int bestMove = Moves.NONE;
+        score = scoreGameOver(board, color, 0);
+        principalVariation = new int[0];
+        for (int plies = 1; plies <= maxPlies && count > 0; plies++) {
+            if (isSkipped(plies)) {
+                continue;
+            }
+            if (transpositionTable != null) {
+                long entry = transpositionTable.probe(getKey(color));
+                if (entry != TranspositionTable.MISS) {
+                    moveToFront(rootMoves, count, TranspositionTable.getMove(entry));
+                }
+            }
+
+            int alpha = -INFINITY;
+            int beta = INFINITY;
+            int window = aspirationWindow;
+            if (window > 0 && completedPlies > 0 && Math.abs(score) < MATE - MAX_PLY) {
+                alpha = score - window;
+                beta = score + window;
+            }
+
+            int iterationScore;
+            while (true) {
+                iterationScore = searchRoot(color, plies, count, alpha, beta);
+                if (stopped) {
+                    break;
+                }
+
+                // Outside the window the score is only a bound, so widen the window on that side and search again
+                if (iterationScore <= alpha) {
+                    alpha = Math.max(iterationScore - window, -INFINITY);
+                } else if (iterationScore >= beta) {
+                    beta = Math.min(iterationScore + window, INFINITY);
+                } else {
+                    break;
+                }
+                window *= 2;
+            }
+
+            if (stopped) {
+                break;
+            }
+            bestMove = pvTable[0][0];
+            score = iterationScore;
+            completedPlies = plies;
+            principalVariation = Arrays.copyOf(pvTable[0], pvLength[0]);
+            canStop = true;
+            if (transpositionTable != null) {
+                transpositionTable.store(getKey(color), bestMove, plies, TranspositionTable.EXACT, score);
+            }
+            if (useMoveOrdering) {
+                moveToFront(rootMoves, count, bestMove);
+            }
+
+            if (Math.abs(score) >= MATE - MAX_PLY || isOverBudget()) {
+                // Either a forced mate, which searching deeper will not improve on, or out of time
+                break;
+            }
+        }
+
+        this.board = null;
+        return (bestMove == Moves.NONE) ? null : new Move(Moves.from(bestMove), Moves.to(bestMove));
+    }
+
+    private boolean isSkipped(int plies) {
+        return skipSize > 0 && plies < maxPlies && ((plies + skipPhase) / skipSize) % 2 != 0;
+    }
+
+    /**
+     * Searches the position on the given board below the root, for a parallel search that has split the tree up. Nodes
+     * visited are added to the node count, and killers and history carry over from earlier calls.
+     *
+     * @return the score for the side to move, which is meaningless if {@link #wasStopped()} afterwards
+     */
+    int searchSubtree(Board board, Color color, int depth, int ply, int alpha, int beta) {
+        this.board = board;
+        moveOrdering.setBoard(board);
+        stopped = false;
+        canStop = true;
+        deadline = Long.MAX_VALUE;
+        int result = search(color, depth, ply, alpha, beta);
+        this.board = null;
+        return result;
+    }
+
+    MoveOrdering getMoveOrdering() {
+        return moveOrdering;
+    }
+
+    /**
+     * Returns whether the most recent call to {@link #searchSubtree} was cut short by the stop signal.
+     */
+    boolean wasStopped() {
+        return stopped;
+    }
+
+    /**
+     * Returns the number of positions visited by the most recent call to {@link #getMove(Board, Color)}.
+     */
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Returns the score of the most recently chosen move, from the point of view of the side that made it.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Returns the depth in plies of the deepest iteration completed by the most recent search.
+     */
+    public int getCompletedPlies() {
+        return completedPlies;
+    }
+
+    /**
+     * Returns the line of play that the most recent search expects, starting with the chosen move. It may be shorter
+     * than the search depth where the line ends in a position found in the transposition table.
+     */
+    public List<Move> getPrincipalVariation() {
+        List<Move> line = new ArrayList<>(principalVariation.length);
+        for (int move : principalVariation) {
+            line.add(new Move(Moves.from(move), Moves.to(move)));
+        }
+        return line;
+    }
+
+    /**
+     * Searches every root move within the given window, recording the best line in the PV table.
+     */
+    private int searchRoot(Color color, int plies, int count, int alpha, int beta) {
+        pvLength[0] = 0;
+        int bestScore = -INFINITY;
+        for (int idx = 0; idx < count; idx++) {
+            int move = rootMoves[idx];
+            int floor = Math.max(alpha, bestScore);
+            board.makeMove(move);
+            nodeCount++;
+            int moveScore = searchMove(color, plies - 1, 1, floor, beta, idx == 0);
+            board.unmakeMove();
+
+            if (stopped) {
+                return 0;
+            }
+            if (moveScore > bestScore) {
+                bestScore = moveScore;
+                if (moveScore > floor) {
+                    updatePrincipalVariation(0, move);
+                }
+                if (bestScore >= beta) {
+                    break;
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    /**
+     * Searches the position just reached by the given side's move, returning the score from the mover's point of view.
+     * Unless this is the first move tried, a null window is tried first to show that the move is no better than alpha.
+     */
+    private int searchMove(Color color, int depth, int ply, int alpha, int beta, boolean isFirstMove) {
+        Color opponent = color.inverse();
+        if (!usePrincipalVariationSearch || isFirstMove) {
+            return -search(opponent, depth, ply, -beta, -alpha);
+        }
+
+        int moveScore = -search(opponent, depth, ply, -alpha - 1, -alpha);
+        if (moveScore > alpha && moveScore < beta && !stopped) {
+            moveScore = -search(opponent, depth, ply, -beta, -alpha);
+        }
+        return moveScore;
+    }
+
+    /**
+     * Records that the line from the given ply starts with the given move and continues with the line found below it.
+     */
+    private void updatePrincipalVariation(int ply, int move) {
+        int[] line = pvTable[ply];
+        line[ply] = move;
+        int childLength = pvLength[ply + 1];
+        System.arraycopy(pvTable[ply + 1], ply + 1, line, ply + 1, childLength - (ply + 1));
+        pvLength[ply] = childLength;
+    }
+
+    private int search(Color color, int depth, int ply, int alpha, int beta) {
+        pvLength[ply] = ply;
+        if (shouldStop()) {
+            return 0;
+        }
+
+        if (depth == 0) {
+            return useQuiescence ? quiesce(color, ply, alpha, beta) : evaluator.evaluate(board, color);
+        }
+
+        long key = 0;
+        int hashMove = Moves.NONE;
+        if (transpositionTable != null) {
+            key = getKey(color);
+            long entry = transpositionTable.probe(key);
+            if (entry != TranspositionTable.MISS) {
+                hashMove = TranspositionTable.getMove(entry);
+                if (TranspositionTable.getDepth(entry) >= depth) {
+                    int entryScore = fromStoredScore(TranspositionTable.getScore(entry), ply);
+                    int bound = TranspositionTable.getBound(entry);
+                    if (bound == TranspositionTable.EXACT ||
+                            (bound == TranspositionTable.LOWER_BOUND && entryScore >= beta) ||
+                            (bound == TranspositionTable.UPPER_BOUND && entryScore <= alpha)) {
+                        return entryScore;
+                    }
+                }
+            }
+        }
+
+        boolean inCheck = board.isInCheck(color);
+        if (useNullMovePruning && depth >= NULL_MOVE_MIN_DEPTH && beta - alpha == 1 && !inCheck &&
+                !(ply > 0 && isNullMove[ply - 1]) && Math.abs(beta) < MATE - MAX_PLY &&
+                board.hasNonPawnMaterial(color)) {
+            // Only tried in null-window nodes, since in the principal variation an exact score is wanted
+            isNullMove[ply] = true;
+            nodeCount++;
+            int nullScore = -search(color.inverse(), depth - 1 - NULL_MOVE_REDUCTION, ply + 1, -beta, -beta + 1);
+            isNullMove[ply] = false;
+            if (stopped) {
+                return 0;
+            }
+            if (nullScore >= beta) {
+                // A mate found after passing proves nothing about the real moves
+                return (nullScore >= MATE - MAX_PLY) ? beta : nullScore;
+            }
+        }
+
+        StagedMoveGenerator orderedMoves = null;
+        int[] moves = moveBuffers[ply];
+        int count = 0;
+        if (useMoveOrdering) {
+            orderedMoves = moveOrdering.getMoves(color, ply, hashMove);
+        } else {
+            count = board.generateLegalMoves(color, moves);
+            moveToFront(moves, count, hashMove);
+        }
+
+        int bestScore = -INFINITY;
+        int bestMove = Moves.NONE;
+        int movesTried = 0;
+        while (true) {
+            int move;
+            if (orderedMoves != null) {
+                move = orderedMoves.next();
+            } else {
+                move = (movesTried < count) ? moves[movesTried] : Moves.NONE;
+            }
+            if (move == Moves.NONE) {
+                break;
+            }
+            movesTried++;
+
+            boolean isCapture = board.get(Moves.to(move)).isPresent();
+            boolean isLate = useLateMoveReductions && orderedMoves != null && depth >= LATE_MOVE_MIN_DEPTH &&
+                    movesTried > LATE_MOVE_THRESHOLD && !inCheck && orderedMoves.isInQuietStage();
+            int floor = Math.max(alpha, bestScore);
+            board.makeMove(move);
+            nodeCount++;
+            int moveScore;
+            if (isLate && !board.isInCheck(color.inverse())) {
+                moveScore = -search(color.inverse(), depth - 2, ply + 1, -floor - 1, -floor);
+                if (moveScore > floor && !stopped) {
+                    moveScore = searchMove(color, depth - 1, ply + 1, floor, beta, false);
+                }
+            } else {
+                moveScore = searchMove(color, depth - 1, ply + 1, floor, beta, movesTried == 1);
+            }
+            board.unmakeMove();
+
+            if (stopped) {
+                return 0;
+            }
+            if (moveScore > bestScore) {
+                bestScore = moveScore;
+                bestMove = move;
+                if (moveScore > floor) {
+                    updatePrincipalVariation(ply, move);
+                }
+                if (bestScore >= beta) {
+                    if (useMoveOrdering && !isCapture) {
+                        moveOrdering.recordCutoff(color, move, ply, depth);
+                    }
+                    break;
+                }
+            }
+        }
+
+        if (movesTried == 0) {
+            return scoreGameOver(board, color, ply);
+        }
+
+        if (transpositionTable != null) {
+            int bound;
+            if (bestScore >= beta) {
+                bound = TranspositionTable.LOWER_BOUND;
+            } else if (bestScore > alpha) {
+                bound = TranspositionTable.EXACT;
+            } else {
+                // Every move failed low, so none of them is known to be best
+                bound = TranspositionTable.UPPER_BOUND;
+                bestMove = Moves.NONE;
+            }
+            transpositionTable.store(key, bestMove, depth, bound, toStoredScore(bestScore, ply));
+        }
+        return bestScore;
+    }
+
+    /**
+     * Searches captures only, until the side to move would rather keep the static evaluation than capture anything.
+     */
+    private int quiesce(Color color, int ply, int alpha, int beta) {
+        pvLength[ply] = ply;
+        if (shouldStop()) {
+            return 0;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return evaluator.evaluate(board, color);
+        }
+
+        boolean inCheck = board.isInCheck(color);
+        int bestScore = -INFINITY;
+        if (!inCheck) {
+            bestScore = evaluator.evaluate(board, color);
+            if (bestScore >= beta) {
+                return bestScore;
+            }
+        }
+
+        // In check, standing pat is not an option, so try every evasion rather than just the captures
+        StagedMoveGenerator moves = inCheck ? moveOrdering.getMoves(color, ply, Moves.NONE) :
+                moveOrdering.getCaptures(color, ply);
+        boolean anyMoves = false;
+        for (int move = moves.next(); move != Moves.NONE; move = moves.next()) {
+            anyMoves = true;
+            board.makeMove(move);
+            nodeCount++;
+            int moveScore = -quiesce(color.inverse(), ply + 1, -beta, -Math.max(alpha, bestScore));
+            board.unmakeMove();
+
+            if (stopped) {
+                return 0;
+            }
+            if (moveScore > bestScore) {
+                bestScore = moveScore;
+                if (bestScore >= beta) {
+                    break;
+                }
+            }
+        }
+
+        if (inCheck && !anyMoves) {
+            return -MATE + ply;
+        }
+        return bestScore;
+    }
+
+    private long getKey(Color color) {
+        return board.getZobristKey() ^ Zobrist.sideToMoveKey(color);
+    }
+
+    /**
+     * Mate scores count plies from the root, but a stored position may be reached at a different ply next time, so
+     * they are stored relative to the position itself.
+     */
+    static int toStoredScore(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score + ply;
+        } else if (score <= -MATE + MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    static int fromStoredScore(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score - ply;
+        } else if (score <= -MATE + MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * Moves the given move to the front of the list, keeping the others in order. Does nothing if it is not present.
+     */
+    private static void moveToFront(int[] moves, int count, int move) {
+        if (move == Moves.NONE) {
+            return;
+        }
+        for (int idx = 0; idx < count; idx++) {
+            if (moves[idx] == move) {
+                System.arraycopy(moves, 0, moves, 1, idx);
+                moves[0] = move;
+                return;
+            }
+        }
+    }
+
+    private boolean shouldStop() {
+        if ((nodeCount & LIMIT_CHECK_MASK) == 0 &&
+                ((stopSignal != null && stopSignal.getAsBoolean()) || (canStop && isOverBudget()))) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    private boolean isOverBudget() {
+        return (nodeLimit > 0 && nodeCount >= nodeLimit) || System.nanoTime() >= deadline;
+    }
+
+    /**
+     * Scores a position where the given color has no legal moves: checkmate, preferring later mates, or stalemate as
+     * the evaluator scores it.
+     */
+    int scoreGameOver(Board board, Color color, int ply) {
+        return board.isInCheck(color) ? -MATE + ply : evaluator.getStalemateScore();
+    }
+}
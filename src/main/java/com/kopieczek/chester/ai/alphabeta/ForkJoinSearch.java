@@ -0,0 +1,400 @@
+package com.kopieczek.chester.ai.alphabeta;
+
+import com.kopieczek.chester.ai.Ai;
+import com.kopieczek.chester.ai.Evaluator;
+import com.kopieczek.chester.ai.MaterialEvaluator;
+import com.kopieczek.chester.ai.Move;
+import com.kopieczek.chester.core.Board;
+import com.kopieczek.chester.core.Color;
+import com.kopieczek.chester.core.Moves;
+import com.kopieczek.chester.core.StagedMoveGenerator;
+import com.kopieczek.chester.core.Zobrist;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Alpha-beta search that divides the tree between the threads of a {@link ForkJoinPool}, deepened iteratively up to a
+ * fixed number of plies.
+ *
+ * Nodes with enough depth left are split Young Brothers Wait style: the first move, usually the best, is searched on
+ * its own to establish a bound, and only then are the remaining moves forked off as separate tasks to be searched in
+ * parallel with that bound. The root is always split this way. Each forked task searches its own copy of the board.
+ * Whenever a task raises the bound its siblings are searched against, siblings that start later use the raised bound,
+ * and if a task fails high the whole split point is cancelled, along with everything forked beneath it.
+ *
+ * Below the split depth, tasks hand the rest of their subtree to a per-thread {@link AlphaBeta}, so they get the same
+ * move ordering, quiescence search and pruning as the single-threaded engine; nodes that are split search every move
+ * at full depth. An optional {@link TranspositionTable} is shared
+ * between all threads.
+ *
+ * Among equally scored moves, which one is chosen can depend on the order in which tasks happen to finish.
+ */
+public class ForkJoinSearch implements Ai {
+    private static final int DEFAULT_SPLIT_DEPTH = 3;
+
+    private final int maxPlies;
+    private final ForkJoinPool pool;
+    private final TranspositionTable transpositionTable;
+    private final ThreadLocal<Worker> workers;
+    private final LongAdder nodes = new LongAdder();
+    private int splitDepth = DEFAULT_SPLIT_DEPTH;
+    private boolean useNullMovePruning = true;
+    private boolean useLateMoveReductions = true;
+
+    private long nodeCount;
+    private int score;
+    private int completedPlies;
+
+    public ForkJoinSearch(int maxPlies, ForkJoinPool pool, TranspositionTable transpositionTable) {
+        this(maxPlies, pool, transpositionTable, MaterialEvaluator::new);
+    }
+
+    /**
+     * @param transpositionTable a table to share between threads, or null to search without one
+     * @param evaluators supplies one evaluator per thread, as evaluators need not be thread-safe
+     */
+    public ForkJoinSearch(int maxPlies, ForkJoinPool pool, TranspositionTable transpositionTable,
+                          Supplier<? extends Evaluator> evaluators) {
+        if (maxPlies < 1 || maxPlies >= AlphaBeta.MAX_PLY) {
+            throw new IllegalArgumentException(
+                    "Search depth must be between 1 and " + (AlphaBeta.MAX_PLY - 1) + " plies");
+        }
+        this.maxPlies = maxPlies;
+        this.pool = pool;
+        this.transpositionTable = transpositionTable;
+        this.workers = ThreadLocal.withInitial(() -> new Worker(evaluators.get()));
+    }
+
+    /**
+     * Sets the least remaining depth, in plies, at which a node below the root is split between threads. Lower values
+     * share out the work more evenly but create more, smaller tasks.
+     */
+    public void setSplitDepth(int plies) {
+        this.splitDepth = Math.max(1, plies);
+    }
+
+    /**
+     * Turns null-move pruning below the split depth on or off. It is on by default.
+     */
+    public void setNullMovePruning(boolean enabled) {
+        this.useNullMovePruning = enabled;
+    }
+
+    /**
+     * Turns late move reductions below the split depth on or off. They are on by default.
+     */
+    public void setLateMoveReductions(boolean enabled) {
+        this.useLateMoveReductions = enabled;
+    }
+
+    @Override
+    public Move getMove(Board board, Color color) {
+        if (transpositionTable != null) {
+            transpositionTable.newSearch();
+        }
+        nodes.reset();
+        completedPlies = 0;
+        int bestMove = Moves.NONE;
+        for (int plies = 1; plies <= maxPlies; plies++) {
+            NodeTask root = new NodeTask(board.copy(), color, plies, 0, -AlphaBeta.INFINITY, AlphaBeta.INFINITY,
+                                         null, bestMove);
+            int rootScore = pool.invoke(root);
+            if (root.bestMove == Moves.NONE) {
+                // No legal moves, so the root was scored as the end of the game
+                score = rootScore;
+                break;
+            }
+            bestMove = root.bestMove;
+            score = rootScore;
+            completedPlies = plies;
+            if (Math.abs(score) >= AlphaBeta.MATE - AlphaBeta.MAX_PLY) {
+                break;
+            }
+        }
+
+        nodeCount = nodes.sum();
+        return (bestMove == Moves.NONE) ? null : new Move(Moves.from(bestMove), Moves.to(bestMove));
+    }
+
+    /**
+     * Returns the number of positions visited across all threads by the most recent search.
+     */
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Returns the score of the most recently chosen move, from the point of view of the side that made it.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Returns the depth in plies of the deepest iteration completed by the most recent search.
+     */
+    public int getCompletedPlies() {
+        return completedPlies;
+    }
+
+    /**
+     * A node whose remaining moves are being searched in parallel. Holds the bound they are searched against, and is
+     * cancelled as soon as one of them fails high or any enclosing split point is cancelled.
+     */
+    private static class SplitPoint implements BooleanSupplier {
+        final SplitPoint parent;
+        final int beta;
+        final AtomicInteger alpha;
+        volatile boolean cancelled;
+
+        SplitPoint(SplitPoint parent, int alpha, int beta) {
+            this.parent = parent;
+            this.alpha = new AtomicInteger(alpha);
+            this.beta = beta;
+        }
+
+        /**
+         * Records the score of one of the moves, from this node's point of view.
+         */
+        void report(int moveScore) {
+            // Cancelled first, so that no sibling can start against the raised alpha without seeing the cancellation
+            if (moveScore >= beta) {
+                cancelled = true;
+            }
+            int current = alpha.get();
+            while (moveScore > current && !alpha.compareAndSet(current, moveScore)) {
+                current = alpha.get();
+            }
+        }
+
+        @Override
+        public boolean getAsBoolean() {
+            for (SplitPoint point = this; point != null; point = point.parent) {
+                if (point.cancelled) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Per-thread state for searching below the split depth.
+     */
+    private class Worker {
+        final AlphaBeta search;
+        final Board board = new Board();
+
+        // A thread waiting to join a task may run other tasks meanwhile, at any ply, so split nodes take move buffers
+        // from a stack by how deeply they are nested on this thread rather than by ply
+        final List<int[]> moveBuffers = new ArrayList<>();
+        int nesting;
+
+        Worker(Evaluator evaluator) {
+            search = new AlphaBeta(AlphaBeta.MAX_PLY - 1, evaluator);
+            search.setTranspositionTable(transpositionTable);
+        }
+    }
+
+    private class NodeTask extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final Board board;
+        private final Color color;
+        private final int depth;
+        private final int ply;
+        private final SplitPoint splitPoint;
+        private final boolean isSibling;
+        private final int hashMoveHint;
+        private int alpha;
+        private int beta;
+
+        boolean aborted;
+        int bestMove = Moves.NONE;
+
+        /**
+         * Creates a task to search with a fixed window, on the calling thread's behalf.
+         */
+        NodeTask(Board board, Color color, int depth, int ply, int alpha, int beta, SplitPoint splitPoint,
+                 int hashMoveHint) {
+            this.board = board;
+            this.color = color;
+            this.depth = depth;
+            this.ply = ply;
+            this.alpha = alpha;
+            this.beta = beta;
+            this.splitPoint = splitPoint;
+            this.isSibling = false;
+            this.hashMoveHint = hashMoveHint;
+        }
+
+        /**
+         * Creates a task to search one of the later moves at a split point, against its bound when the task starts.
+         */
+        NodeTask(Board board, Color color, int depth, int ply, SplitPoint splitPoint) {
+            this.board = board;
+            this.color = color;
+            this.depth = depth;
+            this.ply = ply;
+            this.splitPoint = splitPoint;
+            this.isSibling = true;
+            this.hashMoveHint = Moves.NONE;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (isSibling) {
+                alpha = -splitPoint.beta;
+                beta = -splitPoint.alpha.get();
+            }
+            if ((splitPoint != null && splitPoint.getAsBoolean()) || (isSibling && beta <= alpha)) {
+                // An empty window means another sibling has already failed high
+                aborted = true;
+                return 0;
+            }
+            if (isSibling) {
+                // Counted only now, as siblings that are cancelled before they start are never really visited
+                nodes.increment();
+            }
+
+            int result = (ply > 0 && depth < splitDepth) ? searchSerially() : searchSplit();
+            if (isSibling && !aborted) {
+                splitPoint.report(-result);
+            }
+            return result;
+        }
+
+        private int searchSerially() {
+            Worker worker = workers.get();
+            worker.board.copyFrom(board);
+            worker.search.setStopSignal(splitPoint);
+            worker.search.setNullMovePruning(useNullMovePruning);
+            worker.search.setLateMoveReductions(useLateMoveReductions);
+            long nodesBefore = worker.search.getNodeCount();
+            int result = worker.search.searchSubtree(worker.board, color, depth, ply, alpha, beta);
+            nodes.add(worker.search.getNodeCount() - nodesBefore);
+            aborted = worker.search.wasStopped();
+            return result;
+        }
+
+        private int searchSplit() {
+            long key = board.getZobristKey() ^ Zobrist.sideToMoveKey(color);
+            int hashMove = hashMoveHint;
+            if (transpositionTable != null) {
+                long entry = transpositionTable.probe(key);
+                if (entry != TranspositionTable.MISS) {
+                    hashMove = TranspositionTable.getMove(entry);
+                    if (ply > 0 && TranspositionTable.getDepth(entry) >= depth) {
+                        int entryScore = AlphaBeta.fromStoredScore(TranspositionTable.getScore(entry), ply);
+                        int bound = TranspositionTable.getBound(entry);
+                        if (bound == TranspositionTable.EXACT ||
+                                (bound == TranspositionTable.LOWER_BOUND && entryScore >= beta) ||
+                                (bound == TranspositionTable.UPPER_BOUND && entryScore <= alpha)) {
+                            return entryScore;
+                        }
+                    }
+                }
+            }
+
+            Worker worker = workers.get();
+            if (worker.nesting == worker.moveBuffers.size()) {
+                worker.moveBuffers.add(new int[Moves.MAX_MOVES]);
+            }
+            int[] moves = worker.moveBuffers.get(worker.nesting++);
+            try {
+                return searchMoves(key, hashMove, worker.search, moves);
+            } finally {
+                worker.nesting--;
+            }
+        }
+
+        private int searchMoves(long key, int hashMove, AlphaBeta search, int[] moves) {
+            // Ordered by what this thread has learned so far; tasks never move between threads mid-way
+            MoveOrdering moveOrdering = search.getMoveOrdering();
+            int count = 0;
+            StagedMoveGenerator generator = moveOrdering.getMoves(board, color, ply, hashMove);
+            for (int move = generator.next(); move != Moves.NONE; move = generator.next()) {
+                moves[count++] = move;
+            }
+            if (count == 0) {
+                return search.scoreGameOver(board, color, ply);
+            }
+
+            // The eldest brother is searched alone, on this thread and this board
+            board.makeMove(moves[0]);
+            nodes.increment();
+            NodeTask eldest = new NodeTask(board, color.inverse(), depth - 1, ply + 1, -beta, -alpha, splitPoint,
+                                           Moves.NONE);
+            int bestScore = -eldest.compute();
+            board.unmakeMove();
+            if (eldest.aborted) {
+                aborted = true;
+                return 0;
+            }
+            bestMove = moves[0];
+
+            if (bestScore < beta && count > 1) {
+                SplitPoint point = new SplitPoint(splitPoint, Math.max(alpha, bestScore), beta);
+                List<NodeTask> siblings = new ArrayList<>(count - 1);
+                for (int idx = 1; idx < count; idx++) {
+                    board.makeMove(moves[idx]);
+                    siblings.add(new NodeTask(board.copy(), color.inverse(), depth - 1, ply + 1, point));
+                    board.unmakeMove();
+                }
+                // Forked last to first, so that this thread works through them in order of promise while idle
+                // threads steal from the other end
+                for (int idx = siblings.size() - 1; idx >= 0; idx--) {
+                    siblings.get(idx).fork();
+                }
+                for (NodeTask sibling : siblings) {
+                    sibling.join();
+                }
+
+                if (splitPoint != null && splitPoint.getAsBoolean()) {
+                    aborted = true;
+                    return 0;
+                }
+                int bestMoveScore = bestScore;
+                for (int idx = 0; idx < siblings.size(); idx++) {
+                    NodeTask sibling = siblings.get(idx);
+                    if (sibling.aborted) {
+                        continue;
+                    }
+                    // Every score counts towards the fail-soft bound, but a sibling that failed low against a bound
+                    // set by another is no better than that one, so it cannot be the best move
+                    int moveScore = -sibling.join();
+                    bestScore = Math.max(bestScore, moveScore);
+                    if (moveScore > bestMoveScore && moveScore > -sibling.beta) {
+                        bestMoveScore = moveScore;
+                        bestMove = moves[idx + 1];
+                    }
+                }
+            }
+
+            if (bestScore >= beta && !board.get(Moves.to(bestMove)).isPresent()) {
+                moveOrdering.recordCutoff(color, bestMove, ply, depth);
+            }
+
+            if (transpositionTable != null) {
+                int bound;
+                if (bestScore >= beta) {
+                    bound = TranspositionTable.LOWER_BOUND;
+                } else if (bestScore > alpha) {
+                    bound = TranspositionTable.EXACT;
+                } else {
+                    bound = TranspositionTable.UPPER_BOUND;
+                }
+                int storedMove = (bound == TranspositionTable.UPPER_BOUND) ? Moves.NONE : bestMove;
+                transpositionTable.store(key, storedMove, depth, bound, AlphaBeta.toStoredScore(bestScore, ply));
+            }
+            return bestScore;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.kopieczek.chester.ai.alphabeta;
+
+import com.kopieczek.chester.ai.Ai;
+import com.kopieczek.chester.ai.Evaluator;
+import com.kopieczek.chester.ai.MaterialEvaluator;
+import com.kopieczek.chester.ai.Move;
+import com.kopieczek.chester.core.Board;
+import com.kopieczek.chester.core.Color;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Runs several {@link AlphaBeta} searches of the same position at once, sharing one {@link TranspositionTable}.
+ *
+ * The searches do not divide up the work explicitly. Instead each helper thread fills the table with results that the
+ * others can reuse, so between them they reach a given depth sooner. Each helper skips a different pattern of depths
+ * while iterating, so that the threads are not all searching the same tree in lock step. Each thread searches its own
+ * copy of the board.
+ *
+ * The main search runs on the calling thread and is the one bound by the time and node limits; once it finishes the
+ * helpers are stopped, and the move comes from whichever search completed the deepest iteration. The helpers run on a
+ * pool of daemon threads that is kept from move to move until {@link #shutdown()}.
+ */
+public class LazySmp implements Ai {
+    // Iteration skipping patterns for the helpers, taken in turn: the run length and offset of skipped depths
+    private static final int[] SKIP_SIZES = {1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 3, 3, 4, 4, 4, 4, 4, 4, 4, 4};
+    private static final int[] SKIP_PHASES = {0, 1, 0, 1, 2, 3, 0, 1, 2, 3, 4, 5, 0, 1, 2, 3, 4, 5, 6, 7};
+
+    private final AlphaBeta[] searches;
+    private final TranspositionTable transpositionTable;
+    private final ExecutorService helpers;
+
+    private long nodeCount;
+    private int score;
+    private int completedPlies;
+    private List<Move> principalVariation = Collections.emptyList();
+
+    public LazySmp(int maxPlies, int threads, TranspositionTable transpositionTable) {
+        this(maxPlies, threads, transpositionTable, MaterialEvaluator::new);
+    }
+
+    /**
+     * @param evaluators supplies one evaluator per thread, as evaluators need not be thread-safe
+     */
+    public LazySmp(int maxPlies, int threads, TranspositionTable transpositionTable,
+                   Supplier<? extends Evaluator> evaluators) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one search thread, not " + threads);
+        }
+        this.transpositionTable = transpositionTable;
+        this.searches = new AlphaBeta[threads];
+        for (int idx = 0; idx < threads; idx++) {
+            searches[idx] = new AlphaBeta(maxPlies, evaluators.get());
+            searches[idx].setTranspositionTable(transpositionTable);
+            if (idx > 0) {
+                int pattern = (idx - 1) % SKIP_SIZES.length;
+                searches[idx].setIterationSkipping(SKIP_SIZES[pattern], SKIP_PHASES[pattern]);
+            }
+        }
+        this.helpers = (threads == 1) ? null : Executors.newFixedThreadPool(threads - 1, new HelperThreadFactory());
+    }
+
+    /**
+     * Limits each search to roughly the given wall-clock time, or removes the limit if zero.
+     */
+    public void setTimeLimit(long millis) {
+        searches[0].setTimeLimit(millis);
+    }
+
+    /**
+     * Limits the main search thread to roughly the given number of nodes, or removes the limit if zero. Nodes
+     * searched by helper threads do not count towards the limit.
+     */
+    public void setNodeLimit(long nodes) {
+        searches[0].setNodeLimit(nodes);
+    }
+
+    /**
+     * Turns null-move pruning on or off in every thread. It is on by default.
+     */
+    public void setNullMovePruning(boolean enabled) {
+        for (AlphaBeta search : searches) {
+            search.setNullMovePruning(enabled);
+        }
+    }
+
+    /**
+     * Turns late move reductions on or off in every thread. They are on by default.
+     */
+    public void setLateMoveReductions(boolean enabled) {
+        for (AlphaBeta search : searches) {
+            search.setLateMoveReductions(enabled);
+        }
+    }
+
+    public int getThreadCount() {
+        return searches.length;
+    }
+
+    /**
+     * Stops the helper threads once they are idle. No moves may be requested afterwards.
+     */
+    public void shutdown() {
+        if (helpers != null) {
+            helpers.shutdown();
+        }
+    }
+
+    @Override
+    public Move getMove(Board board, Color color) {
+        AtomicBoolean stopSignal = new AtomicBoolean();
+        transpositionTable.newSearch();
+
+        Move[] moves = new Move[searches.length];
+        for (int idx = 0; idx < searches.length; idx++) {
+            searches[idx].setStopSignal(stopSignal::get);
+        }
+        List<Future<Move>> results = new ArrayList<>();
+        for (int idx = 1; idx < searches.length; idx++) {
+            final AlphaBeta helper = searches[idx];
+            final Board helperBoard = board.copy();
+            results.add(helpers.submit(() -> helper.getMove(helperBoard, color)));
+        }
+
+        moves[0] = searches[0].getMove(board, color);
+        stopSignal.set(true);
+        for (int idx = 1; idx < searches.length; idx++) {
+            moves[idx] = getUninterruptibly(results.get(idx - 1));
+        }
+
+        int best = 0;
+        nodeCount = 0;
+        for (int idx = 0; idx < searches.length; idx++) {
+            nodeCount += searches[idx].getNodeCount();
+            if (moves[idx] != null && searches[idx].getCompletedPlies() > searches[best].getCompletedPlies()) {
+                best = idx;
+            }
+        }
+        score = searches[best].getScore();
+        completedPlies = searches[best].getCompletedPlies();
+        principalVariation = searches[best].getPrincipalVariation();
+        return moves[best];
+    }
+
+    /**
+     * Returns the number of positions visited across all threads by the most recent search.
+     */
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Returns the score of the most recently chosen move, from the point of view of the side that made it.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Returns the depth in plies of the iteration that the most recently chosen move came from.
+     */
+    public int getCompletedPlies() {
+        return completedPlies;
+    }
+
+    /**
+     * Returns the line of play expected by the search that the most recently chosen move came from.
+     */
+    public List<Move> getPrincipalVariation() {
+        return principalVariation;
+    }
+
+    private static Move getUninterruptibly(Future<Move> result) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return result.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Helper search failed", e.getCause());
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static class HelperThreadFactory implements ThreadFactory {
+        private int created;
+
+        @Override
+        public synchronized Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "LazySmp helper " + ++created);
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.kopieczek.chester.ai.alphabeta;
+
+import com.kopieczek.chester.core.Board;
+import com.kopieczek.chester.core.Color;
+import com.kopieczek.chester.core.Moves;
+import com.kopieczek.chester.core.StagedMoveGenerator;
+
+import java.util.Arrays;
+
+/**
+ * What a search has learned about which quiet moves cause cutoffs: two killer moves per ply, and a history score per
+ * side and from/to pair that grows with the depth of each cutoff. Captures are ordered by MVV-LVA in the
+ * {@link StagedMoveGenerator}s this hands out, which try the hash move, then good captures, then the killers, then
+ * the remaining quiet moves by history score, and finally losing captures.
+ *
+ * Not thread-safe; each search thread needs its own.
+ */
+class MoveOrdering {
+    // History scores are halved when they pass this, so that recent cutoffs outweigh old ones
+    private static final int HISTORY_LIMIT = 1 << 20;
+
+    private final int[][] killers = new int[AlphaBeta.MAX_PLY][2];
+    private final int[] history = new int[StagedMoveGenerator.HISTORY_SIZE];
+    private final StagedMoveGenerator[] generators = new StagedMoveGenerator[AlphaBeta.MAX_PLY];
+    private final StagedMoveGenerator spareGenerator = new StagedMoveGenerator(null, history);
+    private Board board;
+
+    MoveOrdering() {
+        for (int ply = 0; ply < generators.length; ply++) {
+            generators[ply] = new StagedMoveGenerator(null, history);
+        }
+    }
+
+    /**
+     * Prepares for a search of the given board. Killers are forgotten, but history scores carry over at half weight.
+     */
+    void newSearch(Board board) {
+        setBoard(board);
+
+        for (int[] plyKillers : killers) {
+            Arrays.fill(plyKillers, Moves.NONE);
+        }
+        for (int idx = 0; idx < history.length; idx++) {
+            history[idx] /= 2;
+        }
+    }
+
+    /**
+     * Switches to ordering moves on the given board, keeping everything learned so far.
+     */
+    void setBoard(Board board) {
+        if (board != this.board) {
+            this.board = board;
+            for (StagedMoveGenerator generator : generators) {
+                generator.setBoard(board);
+            }
+        }
+    }
+
+    /**
+     * Returns the generator for the given ply, reset to produce the side's moves in order.
+     */
+    StagedMoveGenerator getMoves(Color color, int ply, int hashMove) {
+        StagedMoveGenerator generator = generators[ply];
+        generator.reset(color, hashMove, killers[ply][0], killers[ply][1]);
+        return generator;
+    }
+
+    /**
+     * Returns the generator for the given ply, reset to produce only the side's captures, best first.
+     */
+    StagedMoveGenerator getCaptures(Color color, int ply) {
+        StagedMoveGenerator generator = generators[ply];
+        generator.resetForCaptures(color, Moves.NONE);
+        return generator;
+    }
+
+    /**
+     * Returns a generator over the given board that uses the killers and history learned here, for ordering moves on a
+     * board that this does not otherwise search. The same generator is handed out every time, so it must be drained
+     * before the next call.
+     */
+    StagedMoveGenerator getMoves(Board board, Color color, int ply, int hashMove) {
+        spareGenerator.setBoard(board);
+        spareGenerator.reset(color, hashMove, killers[ply][0], killers[ply][1]);
+        return spareGenerator;
+    }
+
+    /**
+     * Records that the given quiet move caused a cutoff at the given ply with the given remaining depth.
+     */
+    void recordCutoff(Color color, int move, int ply, int depth) {
+        int[] plyKillers = killers[ply];
+        if (plyKillers[0] != move) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = move;
+        }
+
+        int index = StagedMoveGenerator.getHistoryIndex(color, move);
+        history[index] += depth * depth;
+        if (history[index] > HISTORY_LIMIT) {
+            for (int idx = 0; idx < history.length; idx++) {
+                history[idx] /= 2;
+            }
+        }
+    }
+}
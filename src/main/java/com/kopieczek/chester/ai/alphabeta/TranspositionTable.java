@@ -0,0 +1,185 @@
+package com.kopieczek.chester.ai.alphabeta;
+
+import com.kopieczek.chester.core.Moves;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size cache of search results keyed by Zobrist hash, safe to share between search threads without locking.
+ *
+ * Entries live in two parallel {@code long[]} arrays, grouped into buckets of two: the first slot of each bucket keeps
+ * whichever result was searched deepest in the current search, and the second always takes the latest result that the
+ * first slot turned away.
+ *
+ * Each entry stores its data word alongside the key XORed with that data. Two threads writing the same slot at once
+ * can leave a key from one write next to data from the other, but then the XOR no longer gives back the key being
+ * probed for, so the torn entry reads as a miss rather than as wrong data.
+ *
+ * A data word packs the best move (bits 0-11), the search depth (12-19), the bound type (20-21), the search generation
+ * (22-29) and the score (32-63). Since the bound type is never zero, neither is a stored data word.
+ */
+public class TranspositionTable {
+    public static final long MISS = 0;
+
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int UPPER_BOUND = 3;
+
+    private static final int ENTRY_BYTES = 16;
+    private static final int BUCKET_SIZE = 2;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int bucketMask;
+    private volatile int generation;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+
+    /**
+     * Creates a table taking up at most the given number of megabytes, rounded down to a power-of-two entry count.
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("Transposition table must be at least 1MB, not " + megabytes);
+        }
+        long maxBuckets = (megabytes * 1024L * 1024L) / (ENTRY_BYTES * BUCKET_SIZE);
+        int buckets = Integer.highestOneBit((int) Math.min(maxBuckets, Integer.MAX_VALUE / BUCKET_SIZE));
+        keys = new long[buckets * BUCKET_SIZE];
+        data = new long[buckets * BUCKET_SIZE];
+        bucketMask = buckets - 1;
+    }
+
+    /**
+     * Returns the data stored for the given key, or {@link #MISS}. Use the static accessors to unpack it.
+     */
+    public long probe(long key) {
+        probes.increment();
+        int slot = getBucket(key);
+        boolean occupied = false;
+        for (int idx = slot; idx < slot + BUCKET_SIZE; idx++) {
+            long entryData = data[idx];
+            if ((keys[idx] ^ entryData) == key && entryData != MISS) {
+                hits.increment();
+                return entryData;
+            }
+            occupied |= entryData != MISS;
+        }
+
+        if (occupied) {
+            collisions.increment();
+        }
+        return MISS;
+    }
+
+    /**
+     * Records a search result. If the move is {@link Moves#NONE}, any move already stored for this key is kept.
+     */
+    public void store(long key, int move, int depth, int bound, int score) {
+        int slot = getBucket(key);
+        int target = slot + 1;
+        long existing = MISS;
+        if ((keys[slot] ^ data[slot]) == key) {
+            target = slot;
+            existing = data[slot];
+        } else if ((keys[slot + 1] ^ data[slot + 1]) == key) {
+            existing = data[slot + 1];
+            if (shouldReplaceDeepest(data[slot], depth)) {
+                target = slot;
+            }
+        } else if (shouldReplaceDeepest(data[slot], depth)) {
+            target = slot;
+        }
+
+        if (move == Moves.NONE && existing != MISS) {
+            move = getMove(existing);
+        }
+        long entryData = pack(move, depth, bound, score);
+        data[target] = entryData;
+        keys[target] = key ^ entryData;
+    }
+
+    /**
+     * Marks the start of a new search, so that results from earlier searches give way to new ones.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xff;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(data, 0);
+        resetStats();
+    }
+
+    public int getEntryCount() {
+        return keys.length;
+    }
+
+    public long getProbeCount() {
+        return probes.sum();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of probes that missed although their bucket held entries for other positions.
+     */
+    public long getCollisionCount() {
+        return collisions.sum();
+    }
+
+    public double getHitRate() {
+        long probeCount = getProbeCount();
+        return (probeCount == 0) ? 0 : (double) getHitCount() / probeCount;
+    }
+
+    public double getCollisionRate() {
+        long probeCount = getProbeCount();
+        return (probeCount == 0) ? 0 : (double) getCollisionCount() / probeCount;
+    }
+
+    public void resetStats() {
+        probes.reset();
+        hits.reset();
+        collisions.reset();
+    }
+
+    public static int getMove(long entry) {
+        return (int) (entry & 0xfff);
+    }
+
+    public static int getDepth(long entry) {
+        return (int) ((entry >>> 12) & 0xff);
+    }
+
+    public static int getBound(long entry) {
+        return (int) ((entry >>> 20) & 0x3);
+    }
+
+    public static int getScore(long entry) {
+        return (int) (entry >> 32);
+    }
+
+    private static int getGeneration(long entry) {
+        return (int) ((entry >>> 22) & 0xff);
+    }
+
+    private long pack(int move, int depth, int bound, int score) {
+        return (move & 0xfffL) | ((long) depth << 12) | ((long) bound << 20) | ((long) generation << 22) |
+               ((long) score << 32);
+    }
+
+    private boolean shouldReplaceDeepest(long entry, int depth) {
+        return entry == MISS || getGeneration(entry) != generation || depth >= getDepth(entry);
+    }
+
+    private int getBucket(long key) {
+        // The low bits of a Zobrist key are as random as any, so they can pick the bucket directly
+        return ((int) key & bucketMask) * BUCKET_SIZE;
+    }
+}
@@ -1,31 +1,54 @@
 package com.kopieczek.chester.ai.simpleminmax;
 
 import com.kopieczek.chester.ai.Ai;
+import com.kopieczek.chester.ai.Evaluator;
+import com.kopieczek.chester.ai.MaterialEvaluator;
 import com.kopieczek.chester.ai.Move;
 import com.kopieczek.chester.core.*;
 
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Optional;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
 public class BasicMinMax implements Ai {
     private static final int DEPTH = 3;
     private static final Integer STATE_SEARCH_CUTOFF = 12;
 
+    private final int depth;
+    private final Evaluator evaluator = new MaterialEvaluator();
+    private final int[] moveBuffer = new int[Moves.MAX_MOVES];
+    private long nodeCount;
+
+    public BasicMinMax() {
+        this(DEPTH);
+    }
+
+    /**
+     * @param depth the number of plies to search beyond the first; i.e. each move is scored after depth + 1 plies
+     */
+    public BasicMinMax(int depth) {
+        this.depth = depth;
+    }
+
     @Override
     public Move getMove(Board board, Color color) {
-        return minmax(board, color, DEPTH).move;
+        nodeCount = 0;
+        return minmax(board, color, depth).move;
+    }
+
+    /**
+     * Returns the number of positions visited by the most recent call to {@link #getMove(Board, Color)}.
+     */
+    public long getNodeCount() {
+        return nodeCount;
     }
 
     public MoveWithScore minmax(Board board, Color color, int depth) {
         List<MoveWithScore> candidates = new ArrayList<>();
         for (Move move : getAllMoves(board, color)) {
-            Piece moved = board.get(move.from).get();
-            Optional<Piece> maybeTaken = board.get(move.to);
-            board.move(move.from, move.to);
+            board.makeMove(Moves.pack(move.from, move.to));
+            nodeCount++;
 
             int score;
             if (depth == 0) {
@@ -34,8 +57,7 @@ public class BasicMinMax implements Ai {
                 score = -minmax(board, color.inverse(), depth - 1).score;
             }
 
-            board.put(move.from, moved);
-            board.put(move.to, maybeTaken.orElse(null));
+            board.unmakeMove();
             candidates.add(new MoveWithScore(move, score));
         }
 
@@ -50,7 +72,7 @@ public class BasicMinMax implements Ai {
             } else if (state.equals(GameState.BLACK_WINS)) {
                 score = (color == Color.BLACK) ? Integer.MIN_VALUE : Integer.MIN_VALUE;
             } else if (state.equals(GameState.STALEMATE)) {
-                score = -5;
+                score = evaluator.getStalemateScore();
             } else {
                 throw new IllegalStateException("No candidate moves but not in any end state. Programmer error?");
             }
@@ -63,18 +85,9 @@ public class BasicMinMax implements Ai {
     // Hack hack hack
     private GameState guessState(Board board, Color color) {
         if (STATE_SEARCH_CUTOFF != null) {
-            AtomicInteger white = new AtomicInteger();
-            AtomicInteger black = new AtomicInteger();
-            for (int cell = 0; cell < 64; cell++) {
-                board.get(cell).ifPresent(piece -> {
-                    if (piece.getColor() == Color.WHITE) {
-                        white.incrementAndGet();
-                    } else {
-                        black.incrementAndGet();
-                    }
-                });
-            }
-            if (white.get() > STATE_SEARCH_CUTOFF || black.get() > STATE_SEARCH_CUTOFF) {
+            int white = board.getPieceCount(Color.WHITE);
+            int black = board.getPieceCount(Color.BLACK);
+            if (white > STATE_SEARCH_CUTOFF || black > STATE_SEARCH_CUTOFF) {
                 // Too many pieces; don't do a checkmate search
                 return GameState.PLAYING;
             }
@@ -84,56 +97,17 @@ public class BasicMinMax implements Ai {
     }
 
     private List<Move> getAllMoves(Board board, Color color) {
-        List<Move> moves = new ArrayList<>();
-        for (int cell = 0; cell < 64; cell++) {
-            final int from = cell;
-            board.get(cell).ifPresent(piece -> {
-                if (piece.getColor() == color) {
-                    for (int to : board.getMoves(from)) {
-                        moves.add(new Move(from, to));
-                    }
-                }
-            });
+        // The buffer is only used while building the list, so it is safe to share across recursive calls.
+        int moveCount = board.generateLegalMoves(color, moveBuffer);
+        List<Move> moves = new ArrayList<>(moveCount);
+        for (int idx = 0; idx < moveCount; idx++) {
+            moves.add(new Move(Moves.from(moveBuffer[idx]), Moves.to(moveBuffer[idx])));
         }
         return moves;
     }
 
     private int applyHeuristic(Board board, Color color) {
-        int score = 0;
-        for (int cell = 0; cell < 64; cell++) {
-            score += board.get(cell).map(piece -> getScore(piece, color)).orElse(0);
-        }
-        return score;
-    }
-
-    private int getScore(Piece piece, Color ownColor) {
-        int rawScore;
-        switch (piece.getType()) {
-            case PAWN:
-                rawScore = 1;
-                break;
-            case KNIGHT:
-                rawScore = 3;
-                break;
-            case BISHOP:
-                rawScore = 3;
-                break;
-            case ROOK:
-                rawScore = 7;
-                break;
-            case QUEEN:
-                rawScore = 9;
-                break;
-            default:
-                rawScore = 0;
-                break;
-        }
-
-        if (piece.getColor() == ownColor) {
-            return rawScore;
-        } else {
-            return -rawScore;
-        }
+        return evaluator.evaluate(board, color);
     }
 
     private static class MoveWithScore {
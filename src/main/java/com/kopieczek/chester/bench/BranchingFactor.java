@@ -0,0 +1,64 @@
+package com.kopieczek.chester.bench;
+
+import com.kopieczek.chester.ai.alphabeta.AlphaBeta;
+import com.kopieczek.chester.ai.alphabeta.TranspositionTable;
+
+/**
+ * Reports the effective branching factor of {@link AlphaBeta} over the {@link PositionSuite}, with null-move pruning
+ * and late move reductions each turned on and off. The branching factor at depth d is the number of nodes searched to
+ * reach depth d divided by the number searched to reach depth d - 1, totalled over every position.
+ *
+ * Usage: {@code BranchingFactor [depth] [--hash MB]}
+ */
+public class BranchingFactor {
+    private static final String[] CONFIGURATIONS = {"Neither", "Null move", "LMR", "Both"};
+
+    public static void main(String[] args) {
+        int maxDepth = 7;
+        int hashMegabytes = 64;
+        for (int idx = 0; idx < args.length; idx++) {
+            if (args[idx].equals("--hash")) {
+                hashMegabytes = Integer.parseInt(args[++idx]);
+            } else {
+                maxDepth = Integer.parseInt(args[idx]);
+            }
+        }
+
+        TranspositionTable table = new TranspositionTable(hashMegabytes);
+        System.out.println("Nodes and effective branching factor over " + PositionSuite.POSITIONS.length +
+                           " positions");
+        System.out.print("Depth");
+        for (String configuration : CONFIGURATIONS) {
+            System.out.printf(" %20s", configuration);
+        }
+        System.out.println();
+
+        long[] previousNodes = new long[CONFIGURATIONS.length];
+        long[] elapsedNanos = new long[CONFIGURATIONS.length];
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            System.out.printf("%5d", depth);
+            for (int config = 0; config < CONFIGURATIONS.length; config++) {
+                AlphaBeta search = new AlphaBeta(depth);
+                search.setNullMovePruning((config & 1) != 0);
+                search.setLateMoveReductions((config & 2) != 0);
+                search.setTranspositionTable(table);
+
+                PositionSuite.Result result = PositionSuite.run(search, table, AlphaBeta::getNodeCount);
+                elapsedNanos[config] = result.elapsedNanos;
+                if (previousNodes[config] == 0) {
+                    System.out.printf(" %12d        ", result.nodes);
+                } else {
+                    System.out.printf(" %12d (%5.2f)", result.nodes, (double) result.nodes / previousNodes[config]);
+                }
+                previousNodes[config] = result.nodes;
+            }
+            System.out.println();
+        }
+
+        System.out.print(" Time");
+        for (long nanos : elapsedNanos) {
+            System.out.printf(" %19.3fs", nanos / 1e9);
+        }
+        System.out.println();
+    }
+}
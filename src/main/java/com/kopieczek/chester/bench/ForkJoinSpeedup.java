@@ -0,0 +1,67 @@
+package com.kopieczek.chester.bench;
+
+import com.kopieczek.chester.ai.alphabeta.AlphaBeta;
+import com.kopieczek.chester.ai.alphabeta.ForkJoinSearch;
+import com.kopieczek.chester.ai.alphabeta.TranspositionTable;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Reports how much faster {@link ForkJoinSearch} searches every position in the {@link PositionSuite} to a fixed depth
+ * than the single-threaded {@link AlphaBeta}, at each of a range of pool sizes.
+ *
+ * Usage: {@code ForkJoinSpeedup [depth] [--hash MB] [--split plies] [--threads 1,2,4,8,16]}
+ */
+public class ForkJoinSpeedup {
+    public static void main(String[] args) {
+        int depth = 7;
+        int hashMegabytes = 64;
+        int splitDepth = 3;
+        String threadCounts = "1,2,4,8,16";
+        for (int idx = 0; idx < args.length; idx++) {
+            switch (args[idx]) {
+                case "--hash":
+                    hashMegabytes = Integer.parseInt(args[++idx]);
+                    break;
+                case "--split":
+                    splitDepth = Integer.parseInt(args[++idx]);
+                    break;
+                case "--threads":
+                    threadCounts = args[++idx];
+                    break;
+                default:
+                    depth = Integer.parseInt(args[idx]);
+                    break;
+            }
+        }
+
+        TranspositionTable table = new TranspositionTable(hashMegabytes);
+        AlphaBeta single = new AlphaBeta(depth);
+        single.setTranspositionTable(table);
+
+        // Discarded, as it includes JIT compilation
+        PositionSuite.run(single, table, AlphaBeta::getNodeCount);
+
+        System.out.println("Time to depth " + depth + " over " + PositionSuite.POSITIONS.length + " positions, " +
+                           Runtime.getRuntime().availableProcessors() + " processors available");
+        System.out.println("Search             Time(s)  Speedup        Nodes     Nodes/s");
+        PositionSuite.Result singleResult = PositionSuite.run(single, table, AlphaBeta::getNodeCount);
+        double baseline = singleResult.getSeconds();
+        printRow("AlphaBeta", baseline, baseline, singleResult.nodes);
+
+        for (String threadCount : threadCounts.split(",")) {
+            int threads = Integer.parseInt(threadCount.trim());
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            ForkJoinSearch search = new ForkJoinSearch(depth, pool, table);
+            search.setSplitDepth(splitDepth);
+            PositionSuite.Result result = PositionSuite.run(search, table, ForkJoinSearch::getNodeCount);
+            printRow("ForkJoin x" + threads, result.getSeconds(), baseline, result.nodes);
+            pool.shutdown();
+        }
+    }
+
+    private static void printRow(String name, double seconds, double baseline, long nodes) {
+        System.out.printf("%-14s %11.3f %8.2f %12d %11.0f%n", name, seconds, baseline / seconds, nodes,
+                          nodes / seconds);
+    }
+}
@@ -0,0 +1,46 @@
+package com.kopieczek.chester.bench;
+
+import com.kopieczek.chester.ai.PawnHashTable;
+import com.kopieczek.chester.ai.PawnStructureEvaluator;
+import com.kopieczek.chester.ai.alphabeta.AlphaBeta;
+import com.kopieczek.chester.ai.alphabeta.TranspositionTable;
+
+/**
+ * Reports how often the {@link PawnHashTable} of a {@link PawnStructureEvaluator} already holds the pawn structure
+ * asked for, while {@link AlphaBeta} searches every position in the {@link PositionSuite} to a fixed depth. The pawn
+ * table is kept from one position to the next, as it would be from one move of a game to the next.
+ *
+ * Usage: {@code PawnHashHitRate [depth] [--hash MB] [--entries N]}
+ */
+public class PawnHashHitRate {
+    public static void main(String[] args) {
+        int depth = 7;
+        int hashMegabytes = 64;
+        int entries = 1 << 14;
+        for (int idx = 0; idx < args.length; idx++) {
+            switch (args[idx]) {
+                case "--hash":
+                    hashMegabytes = Integer.parseInt(args[++idx]);
+                    break;
+                case "--entries":
+                    entries = Integer.parseInt(args[++idx]);
+                    break;
+                default:
+                    depth = Integer.parseInt(args[idx]);
+                    break;
+            }
+        }
+
+        PawnHashTable pawnTable = new PawnHashTable(entries);
+        TranspositionTable table = new TranspositionTable(hashMegabytes);
+        AlphaBeta search = new AlphaBeta(depth, new PawnStructureEvaluator(pawnTable));
+        search.setTranspositionTable(table);
+        PositionSuite.Result result = PositionSuite.run(search, table, AlphaBeta::getNodeCount);
+
+        System.out.println("Pawn hash table of " + pawnTable.getEntryCount() + " entries, depth " + depth + " over " +
+                           PositionSuite.POSITIONS.length + " positions");
+        System.out.printf("Nodes %d, lookups %d, hits %d (%.1f%%), %.3fs%n", result.nodes,
+                          pawnTable.getProbeCount(), pawnTable.getHitCount(), 100 * pawnTable.getHitRate(),
+                          result.getSeconds());
+    }
+}
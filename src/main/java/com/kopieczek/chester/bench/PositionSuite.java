@@ -0,0 +1,63 @@
+package com.kopieczek.chester.bench;
+
+import com.kopieczek.chester.ai.Ai;
+import com.kopieczek.chester.ai.alphabeta.TranspositionTable;
+import com.kopieczek.chester.core.Fen;
+import com.kopieczek.chester.core.Game;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * A fixed set of positions for comparing search configurations, running from the opening through to simple endings.
+ */
+public class PositionSuite {
+    public static final String[] POSITIONS = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1",
+            "r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w - - 0 1",
+            "r1bqk2r/pppp1ppp/2n2n2/2b1p3/2B1P3/2N2N2/PPPP1PPP/R1BQK2R w - - 0 1",
+            "r2q1rk1/ppp2ppp/2np1n2/2b1p1B1/2B1P1b1/2NP1N2/PPP2PPP/R2Q1RK1 w - - 0 1",
+            "r1b2rk1/2q1bppp/p2p1n2/np2p3/3PP3/5N1P/PPBN1PP1/R1BQR1K1 b - - 0 1",
+            "2r3k1/pp3pp1/4p2p/3n4/3P4/P4N2/1P3PPP/2R3K1 w - - 0 1",
+            "8/5pk1/6p1/3R4/7P/6P1/r4PK1/8 b - - 0 1",
+            "4k3/8/3p4/2n1r3/8/3N4/1B6/4K3 b - - 0 1",
+    };
+
+    /**
+     * Searches each position in turn, clearing the given table (if any) before each one so that no position benefits
+     * from the search of another.
+     *
+     * @param nodeCount reads the number of nodes the search visited for the position it last searched
+     */
+    public static <T extends Ai> Result run(T search, TranspositionTable table, ToLongFunction<T> nodeCount) {
+        long elapsedNanos = 0;
+        long nodes = 0;
+        for (String fen : POSITIONS) {
+            Game game = Fen.parse(fen);
+            if (table != null) {
+                table.clear();
+            }
+            long start = System.nanoTime();
+            search.getMove(game.getBoard(), game.getActivePlayer());
+            elapsedNanos += System.nanoTime() - start;
+            nodes += nodeCount.applyAsLong(search);
+        }
+        return new Result(Math.max(elapsedNanos, 1), nodes);
+    }
+
+    /**
+     * The total time taken and nodes visited by a search of every position in the suite.
+     */
+    public static class Result {
+        public final long elapsedNanos;
+        public final long nodes;
+
+        Result(long elapsedNanos, long nodes) {
+            this.elapsedNanos = elapsedNanos;
+            this.nodes = nodes;
+        }
+
+        public double getSeconds() {
+            return elapsedNanos / 1e9;
+        }
+    }
+}
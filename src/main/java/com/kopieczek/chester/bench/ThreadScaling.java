@@ -0,0 +1,60 @@
+package com.kopieczek.chester.bench;
+
+import com.kopieczek.chester.ai.alphabeta.LazySmp;
+import com.kopieczek.chester.ai.alphabeta.TranspositionTable;
+
+/**
+ * Reports how long {@link LazySmp} takes to search every position in the {@link PositionSuite} to a fixed depth, at
+ * each of a range of thread counts. The speedup is relative to a single thread, which is always measured whether or not
+ * it is one of the counts listed.
+ *
+ * Usage: {@code ThreadScaling [depth] [--hash MB] [--threads 1,2,4,8,16]}
+ */
+public class ThreadScaling {
+    public static void main(String[] args) {
+        int depth = 7;
+        int hashMegabytes = 64;
+        String threadCounts = "1,2,4,8,16";
+        for (int idx = 0; idx < args.length; idx++) {
+            switch (args[idx]) {
+                case "--hash":
+                    hashMegabytes = Integer.parseInt(args[++idx]);
+                    break;
+                case "--threads":
+                    threadCounts = args[++idx];
+                    break;
+                default:
+                    depth = Integer.parseInt(args[idx]);
+                    break;
+            }
+        }
+
+        TranspositionTable table = new TranspositionTable(hashMegabytes);
+        System.out.println("Time to depth " + depth + " over " + PositionSuite.POSITIONS.length + " positions, " +
+                           Runtime.getRuntime().availableProcessors() + " processors available");
+        System.out.println("Threads    Time(s)  Speedup        Nodes     Nodes/s");
+
+        // An untimed pass, so that the baseline does not also measure JIT compilation
+        PositionSuite.run(new LazySmp(depth, 1, table), table, LazySmp::getNodeCount);
+
+        PositionSuite.Result singleThreaded = run(depth, 1, table);
+        double baseline = singleThreaded.getSeconds();
+        for (String threadCount : threadCounts.split(",")) {
+            int threads = Integer.parseInt(threadCount.trim());
+            PositionSuite.Result result = (threads == 1) ? singleThreaded : run(depth, threads, table);
+
+            double seconds = result.getSeconds();
+            System.out.printf("%7d %10.3f %8.2f %12d %11.0f%n", threads, seconds, baseline / seconds, result.nodes,
+                              result.nodes / seconds);
+        }
+    }
+
+    private static PositionSuite.Result run(int depth, int threads, TranspositionTable table) {
+        LazySmp search = new LazySmp(depth, threads, table);
+        try {
+            return PositionSuite.run(search, table, LazySmp::getNodeCount);
+        } finally {
+            search.shutdown();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.kopieczek.chester.core;
+
+/**
+ * Precomputed attack tables and helpers for 64-bit board masks.
+ *
+ * Bit n of a mask corresponds to board cell n, so a1 is the least significant bit and h8 the most significant.
+ */
+public class Bitboards {
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_H = FILE_A << 7;
+    public static final long RANK_1 = 0xffL;
+    public static final long RANK_2 = RANK_1 << 8;
+    public static final long RANK_7 = RANK_1 << 48;
+    public static final long RANK_8 = RANK_1 << 56;
+
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    private static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    // Rays run outward from each cell to the edge of the board. Directions 0-3 head towards higher cell
+    // indices (N, E, NE, NW) and directions 4-7 towards lower ones (S, W, SW, SE).
+    private static final int[] RAY_FILE_DELTAS = {0, 1, 1, -1, 0, -1, -1, 1};
+    private static final int[] RAY_RANK_DELTAS = {1, 0, 1, 1, -1, 0, -1, -1};
+    private static final long[][] RAYS = new long[8][64];
+
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    static {
+        for (int cell = 0; cell < 64; cell++) {
+            KNIGHT_ATTACKS[cell] = stepAttacks(cell, new int[][] {
+                    {1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}});
+            KING_ATTACKS[cell] = stepAttacks(cell, new int[][] {
+                    {0, 1}, {1, 1}, {1, 0}, {1, -1}, {0, -1}, {-1, -1}, {-1, 0}, {-1, 1}});
+            PAWN_ATTACKS[Color.WHITE.ordinal()][cell] = stepAttacks(cell, new int[][] {{-1, 1}, {1, 1}});
+            PAWN_ATTACKS[Color.BLACK.ordinal()][cell] = stepAttacks(cell, new int[][] {{-1, -1}, {1, -1}});
+
+            for (int direction = 0; direction < 8; direction++) {
+                long ray = 0;
+                int file = cell % 8 + RAY_FILE_DELTAS[direction];
+                int rank = cell / 8 + RAY_RANK_DELTAS[direction];
+                while (isOnBoard(file, rank)) {
+                    ray |= bit(rank * 8 + file);
+                    file += RAY_FILE_DELTAS[direction];
+                    rank += RAY_RANK_DELTAS[direction];
+                }
+                RAYS[direction][cell] = ray;
+            }
+        }
+
+        for (int cell = 0; cell < 64; cell++) {
+            for (int direction = 0; direction < 8; direction++) {
+                int opposite = (direction + 4) % 8;
+                for (long ray = RAYS[direction][cell]; ray != 0; ray &= ray - 1) {
+                    int other = Long.numberOfTrailingZeros(ray);
+                    BETWEEN[cell][other] = RAYS[direction][cell] & RAYS[opposite][other];
+                    LINE[cell][other] = RAYS[direction][cell] | RAYS[opposite][cell] | bit(cell);
+                }
+            }
+        }
+    }
+
+    public static long bit(int cell) {
+        return 1L << cell;
+    }
+
+    /**
+     * Returns the cells strictly between the two given cells if they share a rank, file or diagonal, or an empty
+     * mask otherwise.
+     */
+    public static long between(int from, int to) {
+        return BETWEEN[from][to];
+    }
+
+    /**
+     * Returns the entire rank, file or diagonal running through both given cells, or an empty mask if they are not
+     * aligned.
+     */
+    public static long line(int from, int to) {
+        return LINE[from][to];
+    }
+
+    public static long knightAttacks(int cell) {
+        return KNIGHT_ATTACKS[cell];
+    }
+
+    public static long kingAttacks(int cell) {
+        return KING_ATTACKS[cell];
+    }
+
+    public static long pawnAttacks(Color color, int cell) {
+        return PAWN_ATTACKS[color.ordinal()][cell];
+    }
+
+    public static long bishopAttacks(int cell, long occupied) {
+        return positiveRayAttacks(2, cell, occupied) | positiveRayAttacks(3, cell, occupied) |
+               negativeRayAttacks(6, cell, occupied) | negativeRayAttacks(7, cell, occupied);
+    }
+
+    public static long rookAttacks(int cell, long occupied) {
+        return positiveRayAttacks(0, cell, occupied) | positiveRayAttacks(1, cell, occupied) |
+               negativeRayAttacks(4, cell, occupied) | negativeRayAttacks(5, cell, occupied);
+    }
+
+    public static long queenAttacks(int cell, long occupied) {
+        return bishopAttacks(cell, occupied) | rookAttacks(cell, occupied);
+    }
+
+    private static long positiveRayAttacks(int direction, int cell, long occupied) {
+        // The first blocker along an upward ray is its lowest set bit; everything beyond it is cut off.
+        long ray = RAYS[direction][cell];
+        long blockers = ray & occupied;
+        if (blockers == 0) {
+            return ray;
+        }
+        return ray ^ RAYS[direction][Long.numberOfTrailingZeros(blockers)];
+    }
+
+    private static long negativeRayAttacks(int direction, int cell, long occupied) {
+        // The first blocker along a downward ray is its highest set bit.
+        long ray = RAYS[direction][cell];
+        long blockers = ray & occupied;
+        if (blockers == 0) {
+            return ray;
+        }
+        return ray ^ RAYS[direction][63 - Long.numberOfLeadingZeros(blockers)];
+    }
+
+    private static long stepAttacks(int cell, int[][] deltas) {
+        long attacks = 0;
+        for (int[] delta : deltas) {
+            int file = cell % 8 + delta[0];
+            int rank = cell / 8 + delta[1];
+            if (isOnBoard(file, rank)) {
+                attacks |= bit(rank * 8 + file);
+            }
+        }
+        return attacks;
+    }
+
+    private static boolean isOnBoard(int file, int rank) {
+        return file >= 0 && file < 8 && rank >= 0 && rank < 8;
+    }
+}
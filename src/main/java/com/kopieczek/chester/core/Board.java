@@ -1,11 +1,104 @@
 package com.kopieczek.chester.core;
 
 import java.util.*;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
+
+import static com.kopieczek.chester.core.Bitboards.*;
 
 public class Board {
+    private static final Piece[] PIECES = Piece.values();
+    private static final int INITIAL_UNDO_CAPACITY = 128;
+
+    // Shared so that get() does not allocate; index 0 is the empty cell and index n + 1 holds the piece of ordinal n.
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final Optional<Piece>[] OPTIONAL_PIECES = new Optional[PIECES.length + 1];
+
+    static {
+        OPTIONAL_PIECES[0] = Optional.empty();
+        for (Piece piece : PIECES) {
+            OPTIONAL_PIECES[piece.ordinal() + 1] = Optional.of(piece);
+        }
+    }
+
+    // The mailbox answers "what is on this cell?" in O(1); the bitboards answer set-wise questions such as
+    // "where are the black rooks?" or "which cells does this bishop reach?" without walking the board.
     private final Piece[] pieces = new Piece[64];
+    private final long[] pieceBitboards = new long[PIECES.length];
+    private final long[] colorBitboards = new long[2];
+    private long occupied;
+    private long zobristKey;
+    private long pawnKey;
+
+    // Running totals of PieceValues for each side, so that evaluation need not visit every piece
+    private final int[] material = new int[2];
+    private final int[] pieceSquareScores = new int[2];
+
+    // Attack information is kept up to date on every change to the board. Each cell remembers the cells attacked by
+    // the piece standing on it, so that only the difference needs applying when that piece's rays change.
+    private final long[] pieceAttacks = new long[64];
+    private final byte[][] attackerCounts = new byte[2][64];
+    private final long[] attackMaps = new long[2];
+
+    // Undo records for makeMove, packed as: move in bits 0-11, captured piece (ordinal + 1, or 0 for none) in
+    // bits 12-15. The stack only grows if a line runs deeper than anything seen so far on this board.
+    private long[] undoStack = new long[INITIAL_UNDO_CAPACITY];
+    private int undoDepth;
+
+    public Board() {
+    }
+
+    private Board(Board other) {
+        copyFrom(other);
+    }
+
+    /**
+     * Returns an independent copy of this board, e.g. for a search thread to work on while the original is displayed.
+     * This only copies a handful of small arrays. The copy starts with no moves to undo.
+     */
+    public Board copy() {
+        return new Board(this);
+    }
+
+    /**
+     * Overwrites this board with the position on the other one, as {@link #copy()} would but without allocating, so
+     * that a thread can reuse one board for many positions in turn. This board is left with no moves to undo.
+     */
+    public void copyFrom(Board other) {
+        System.arraycopy(other.pieces, 0, pieces, 0, pieces.length);
+        System.arraycopy(other.pieceBitboards, 0, pieceBitboards, 0, pieceBitboards.length);
+        System.arraycopy(other.colorBitboards, 0, colorBitboards, 0, colorBitboards.length);
+        System.arraycopy(other.pieceAttacks, 0, pieceAttacks, 0, pieceAttacks.length);
+        System.arraycopy(other.attackMaps, 0, attackMaps, 0, attackMaps.length);
+        for (int color = 0; color < attackerCounts.length; color++) {
+            System.arraycopy(other.attackerCounts[color], 0, attackerCounts[color], 0, attackerCounts[color].length);
+        }
+        occupied = other.occupied;
+        zobristKey = other.zobristKey;
+        pawnKey = other.pawnKey;
+        System.arraycopy(other.material, 0, material, 0, material.length);
+        System.arraycopy(other.pieceSquareScores, 0, pieceSquareScores, 0, pieceSquareScores.length);
+        undoDepth = 0;
+    }
+
+    /**
+     * Removes every piece, leaving the board as if newly constructed. Lets a single board be reused when loading many
+     * positions in turn.
+     */
+    public void clear() {
+        Arrays.fill(pieces, null);
+        Arrays.fill(pieceBitboards, 0);
+        Arrays.fill(colorBitboards, 0);
+        Arrays.fill(pieceAttacks, 0);
+        Arrays.fill(attackMaps, 0);
+        for (byte[] counts : attackerCounts) {
+            Arrays.fill(counts, (byte) 0);
+        }
+        occupied = 0;
+        zobristKey = 0;
+        pawnKey = 0;
+        Arrays.fill(material, 0);
+        Arrays.fill(pieceSquareScores, 0);
+        undoDepth = 0;
+    }
 
     public static Board standardSetup() {
         Board board = new Board();
@@ -35,276 +128,736 @@ public class Board {
     }
 
     public Optional<Piece> get(int cell) {
-        return Optional.ofNullable(pieces[cell]);
+        return OPTIONAL_PIECES[pieces[cell] == null ? 0 : pieces[cell].ordinal() + 1];
+    }
+
+    /**
+     * Writes the cells holding pieces of the given color into the supplied buffer, in ascending order, and returns
+     * how many there are. A buffer of 64 entries is always large enough.
+     */
+    public int getPieceCells(Color color, int[] out) {
+        int count = 0;
+        for (long own = colorBitboards[color.ordinal()]; own != 0; own &= own - 1) {
+            out[count++] = Long.numberOfTrailingZeros(own);
+        }
+        return count;
+    }
+
+    public int getPieceCount(Color color) {
+        return Long.bitCount(colorBitboards[color.ordinal()]);
+    }
+
+    /**
+     * Returns whether the given color has any pieces other than its king and pawns. Without them, a side is often in
+     * zugzwang, so searches should not assume that it could do better than passing.
+     */
+    public boolean hasNonPawnMaterial(Color color) {
+        long kingAndPawns = pieceBitboards[kingIndex(color)] | pieceBitboards[pawnIndex(color.ordinal())];
+        return (colorBitboards[color.ordinal()] & ~kingAndPawns) != 0;
+    }
+
+    /**
+     * Returns the cell of the given color's king, or -1 if it has none. If there are several (which is only possible
+     * in hand-built positions) the lowest cell is returned.
+     */
+    public int getKingCell(Color color) {
+        long kings = pieceBitboards[kingIndex(color)];
+        return (kings == 0) ? -1 : Long.numberOfTrailingZeros(kings);
     }
 
     public void put(int cell, Piece piece) {
-        pieces[cell] = piece;
+        if (pieces[cell] != null) {
+            removePiece(cell, pieces[cell]);
+        }
+        if (piece != null) {
+            addPiece(cell, piece);
+        }
     }
 
+    /**
+     * Moves whatever is on the first cell to the second, replacing anything there. Moving a cell onto itself empties
+     * it.
+     */
     public void move(int from, int to) {
-        pieces[to] = pieces[from];
-        pieces[from] = null;
+        if (from == to) {
+            put(from, null);
+            return;
+        }
+        Piece mover = pieces[from];
+        if (pieces[to] != null) {
+            removePiece(to, pieces[to]);
+        }
+        if (mover != null) {
+            removePiece(from, mover);
+            addPiece(to, mover);
+        }
     }
 
-    public Collection<Integer> getMoves(int cell) {
-        return get(cell).map(piece -> getMovesForOccupiedCell(cell, piece))
-                        .orElse(Collections.emptyList());
+    /**
+     * Plays a packed move (see {@link Moves}) so that it can later be reverted with {@link #unmakeMove()}. Moves are
+     * undone in the reverse of the order they were made. No legality checking is performed.
+     */
+    public void makeMove(int move) {
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        Piece mover = pieces[from];
+        Piece captured = pieces[to];
+
+        if (undoDepth == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoStack.length * 2);
+        }
+        undoStack[undoDepth++] = move | ((captured == null ? 0L : captured.ordinal() + 1) << 12);
+
+        if (captured != null) {
+            removePiece(to, captured);
+        }
+        removePiece(from, mover);
+        addPiece(to, mover);
     }
 
-    // Visible for testing
-    Collection<Integer> getMovesForOccupiedCell(int cell, Piece piece) {
-        return getMovesForOccupiedCellWithoutThreatChecks(cell, piece).stream()
-                .filter(move -> !movePutsSelfInCheck(cell, move))
-                .collect(Collectors.toList());
+    /**
+     * Reverts the most recent move played with {@link #makeMove(int)}.
+     */
+    public void unmakeMove() {
+        long record = undoStack[--undoDepth];
+        int from = Moves.from((int) record);
+        int to = Moves.to((int) record);
+        int capturedCode = (int) (record >>> 12) & 0xf;
+
+        Piece mover = pieces[to];
+        removePiece(to, mover);
+        addPiece(from, mover);
+        if (capturedCode != 0) {
+            addPiece(to, PIECES[capturedCode - 1]);
+        }
     }
 
-    private Collection<Integer> getMovesForOccupiedCellWithoutThreatChecks(int cell, Piece piece) {
-        switch (piece.getType()) {
-            case PAWN:
-                return getMovesForPawn(cell, piece.getColor());
-            case KNIGHT:
-                return getMovesForKnight(cell, piece.getColor());
-            case BISHOP:
-                return getMovesForBishop(cell, piece.getColor());
-            case ROOK:
-                return getMovesForRook(cell, piece.getColor());
-            case QUEEN:
-                return getMovesForQueen(cell, piece.getColor());
-            case KING:
-                return getMovesForKing(cell, piece.getColor());
-            default:
-                throw new IllegalArgumentException("Unknown piece type " + piece.getType());
+    /**
+     * Returns the Zobrist key of the pieces on the board. This does not include the side to move, which the board
+     * does not track; see {@link Zobrist#sideToMoveKey(Color)}.
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * Returns the Zobrist key of the pawns alone, which stays the same as other pieces move, for caching evaluation of
+     * the pawn structure.
+     */
+    public long getPawnKey() {
+        return pawnKey;
+    }
+
+    /**
+     * Recomputes the pawn key from scratch, for checking the incrementally maintained one.
+     */
+    public long computePawnKey() {
+        long key = 0;
+        for (Color color : Color.values()) {
+            for (long pawns = getPawns(color); pawns != 0; pawns &= pawns - 1) {
+                int cell = Long.numberOfTrailingZeros(pawns);
+                key ^= Zobrist.pieceKey(pieces[cell], cell);
+            }
         }
+        return key;
     }
 
-    private Collection<Integer> getMovesForPawn(int cell, Color ownColor) {
-        List<Integer> moves = new ArrayList<>();
-        final int sign = (ownColor == Color.WHITE) ? 1 : -1;
-        final int standardMove = cell + sign * 8;
-        final int doubleMove = cell + sign * 16;
-        final int leftTake = cell - 1 + 8 * sign;
-        final int rightTake = cell + 1 + 8 * sign;
-        final int startingRank = (ownColor == Color.WHITE) ? 2 : 7;
-        final boolean isOnStartingRank = (cell / 8 + 1 == startingRank);
-
-        if (standardMove < 0 || standardMove > 63) {
-            // Pawn is on last rank; no moves are possible
-            return moves;
-        }
-
-        if (isEmpty(standardMove)) {
-            // Pawn has a clear cell directly ahead, so non-taking moves are possible
-            moves.add(standardMove);
-            if (isOnStartingRank && isEmpty(doubleMove)) {
-                moves.add(doubleMove);
+    /**
+     * Returns a mask of the cells holding the given color's pawns.
+     */
+    public long getPawns(Color color) {
+        return pieceBitboards[pawnIndex(color.ordinal())];
+    }
+
+    /**
+     * Recomputes the Zobrist key from scratch, for checking the incrementally maintained one.
+     */
+    public long computeZobristKey() {
+        long key = 0;
+        for (int cell = 0; cell < 64; cell++) {
+            if (pieces[cell] != null) {
+                key ^= Zobrist.pieceKey(pieces[cell], cell);
             }
         }
+        return key;
+    }
+
+    /**
+     * Returns the total {@link PieceValues#material(Piece) material} of the given color's pieces, in pawns.
+     */
+    public int getMaterial(Color color) {
+        return material[color.ordinal()];
+    }
 
-        // Add in 'taking' moves if any are possible
-        boolean isInLeftFile = cell % 8 == 0;
-        boolean isInRightFile = cell % 8 == 7;
-        if (!isInLeftFile && !isEmpty(leftTake) && pieces[leftTake].getColor() != ownColor) {
-            moves.add(leftTake);
+    /**
+     * Returns the total {@link PieceValues#pieceSquare(Piece, int) piece-square} score of the given color's pieces,
+     * in centipawns.
+     */
+    public int getPieceSquareScore(Color color) {
+        return pieceSquareScores[color.ordinal()];
+    }
+
+    /**
+     * Recomputes the given color's material from scratch, for checking the incrementally maintained total.
+     */
+    public int computeMaterial(Color color) {
+        int total = 0;
+        for (long own = colorBitboards[color.ordinal()]; own != 0; own &= own - 1) {
+            total += PieceValues.material(pieces[Long.numberOfTrailingZeros(own)]);
         }
-        if (!isInRightFile && !isEmpty(rightTake) && pieces[rightTake].getColor() != ownColor) {
-            moves.add(rightTake);
+        return total;
+    }
+
+    /**
+     * Recomputes the given color's piece-square score from scratch, for checking the incrementally maintained total.
+     */
+    public int computePieceSquareScore(Color color) {
+        int total = 0;
+        for (long own = colorBitboards[color.ordinal()]; own != 0; own &= own - 1) {
+            int cell = Long.numberOfTrailingZeros(own);
+            total += PieceValues.pieceSquare(pieces[cell], cell);
         }
+        return total;
+    }
 
-        return moves;
+    public Collection<Integer> getMoves(int cell) {
+        return get(cell).map(piece -> getMovesForOccupiedCell(cell, piece))
+                        .orElse(Collections.emptyList());
     }
 
-    private Collection<Integer> getMovesForKnight(int cell, Color ownColor) {
+    // Visible for testing
+    Collection<Integer> getMovesForOccupiedCell(int cell, Piece piece) {
         List<Integer> moves = new ArrayList<>();
-        int rank = cell / 8;
-        int file = cell % 8;
-        for (int dX : getKnightDeltas(file)) {
-            for (int dY : getKnightDeltas(rank)) {
-                if (Math.abs(dX) != Math.abs(dY)) {
-                    int target = cell + 8 * dY + dX;
-                    if (isEmpty(target) || pieces[target].getColor() != ownColor) {
-                        moves.add(target);
-                    }
-                }
-            }
+        for (long targets = getLegalTargets(cell, piece); targets != 0; targets &= targets - 1) {
+            moves.add(Long.numberOfTrailingZeros(targets));
         }
         return moves;
     }
 
-    private static Collection<Integer> getKnightDeltas(int axis) {
-        List<Integer> deltas = new ArrayList<>();
-        if (axis > 1)
-            deltas.add(-2);
-        if (axis > 0)
-            deltas.add(-1);
-        if (axis < 7)
-            deltas.add(1);
-        if (axis < 6)
-            deltas.add(2);
-        return deltas;
+    /**
+     * Writes every legal move for the given color into the supplied buffer as packed {@link Moves}, without
+     * allocating. A buffer of {@link Moves#MAX_MOVES} entries is enough for any position reachable in a game, but not
+     * for every board that can be set up by hand.
+     *
+     * @return the number of moves written
+     * @throws IllegalArgumentException if the buffer is too small to hold every move
+     */
+    public int generateLegalMoves(Color color, int[] out) {
+        return generateLegalMoves(color, out, ~0L);
     }
 
-    private Collection<Integer> getMovesForBishop(int cell, Color ownColor) {
-        List<Integer> moves = new ArrayList<>();
-        final int[] deltas = new int[] {-1, 1};
-        final int rank = cell / 8;
-        final int file = cell % 8;
-
-        for (int fileDelta : deltas) {
-            for (int rankDelta : deltas) {
-                // Add all moves in the direction determined by this given fileDelta and rankDelta, continuing
-                // until we hit a blocking piece, or reach the edge of the board.
-                int newRank = rank;
-                int newFile = file;
-                while (true) {
-                    newRank += rankDelta;
-                    newFile += fileDelta;
-                    if (newRank < 0 || newRank > 7 || newFile < 0 || newFile > 7) {
-                        break;
-                    }
-
-                    int newCell = newRank * 8 + newFile;
-                    if (isEmpty(newCell)) {
-                        moves.add(newCell);
-                    } else if (pieces[newCell].getColor() != ownColor) {
-                        // This cell is a capture; add the move but don't continue further in this direction
-                        moves.add(newCell);
-                        break;
-                    } else {
-                        // This cell is occupied by an allied piece; we cannot move here and cannot continue
-                        // further in this direction
-                        break;
-                    }
+    /**
+     * As {@link #generateLegalMoves(Color, int[])}, but only writes moves that take an enemy piece.
+     */
+    public int generateLegalCaptures(Color color, int[] out) {
+        return generateLegalMoves(color, out, colorBitboards[color.inverse().ordinal()]);
+    }
+
+    /**
+     * As {@link #generateLegalMoves(Color, int[])}, but only writes moves to empty cells.
+     */
+    public int generateLegalQuiets(Color color, int[] out) {
+        return generateLegalMoves(color, out, ~occupied);
+    }
+
+    /**
+     * Returns whether the given packed move is legal for the given color in this position. This is useful for
+     * checking moves remembered from elsewhere in a search, which may not apply here.
+     */
+    public boolean isLegalMove(Color color, int move) {
+        int from = Moves.from(move);
+        Piece piece = pieces[from];
+        return piece != null && piece.getColor() == color && (getLegalTargets(from, piece) & bit(Moves.to(move))) != 0;
+    }
+
+    private int generateLegalMoves(Color color, int[] out, long targetMask) {
+        int kingCell = getSoleKingCell(color);
+        if (kingCell < 0) {
+            return generateLegalMovesByTrial(color, out, targetMask);
+        }
+
+        long checkers = getCheckers(color, kingCell);
+        long pinned = getPinnedPieces(color, kingCell);
+        if (checkers != 0) {
+            return generateEvasions(color, out, kingCell, checkers, pinned, targetMask);
+        }
+
+        int count = addKingMoves(color, out, 0, kingCell, targetMask);
+        for (long own = colorBitboards[color.ordinal()] & ~bit(kingCell); own != 0; own &= own - 1) {
+            int from = Long.numberOfTrailingZeros(own);
+            long targets = getTargetsWithoutThreatChecks(from, pieces[from]) & targetMask;
+            if ((pinned & bit(from)) != 0) {
+                // A pinned piece may only slide along the line between its king and the pinning piece
+                targets &= line(kingCell, from);
+            }
+            count = addMoves(out, count, from, targets);
+        }
+        return count;
+    }
+
+    /**
+     * Returns whether the given color has any legal move, stopping as soon as one is found.
+     */
+    public boolean hasLegalMove(Color color) {
+        int kingCell = getSoleKingCell(color);
+        if (kingCell < 0) {
+            for (long own = colorBitboards[color.ordinal()]; own != 0; own &= own - 1) {
+                int from = Long.numberOfTrailingZeros(own);
+                if (getTargetsByTrial(from, pieces[from]) != 0) {
+                    return true;
                 }
             }
+            return false;
         }
 
-        return moves;
+        if (getKingTargets(color, kingCell) != 0) {
+            return true;
+        }
+
+        long checkers = getCheckers(color, kingCell);
+        if (Long.bitCount(checkers) > 1) {
+            return false;
+        }
+        long allowedTargets = (checkers == 0) ? ~0L : checkers | between(kingCell, Long.numberOfTrailingZeros(checkers));
+        long pinned = getPinnedPieces(color, kingCell);
+        for (long own = colorBitboards[color.ordinal()] & ~bit(kingCell); own != 0; own &= own - 1) {
+            int from = Long.numberOfTrailingZeros(own);
+            long targets = getTargetsWithoutThreatChecks(from, pieces[from]) & allowedTargets;
+            if ((pinned & bit(from)) != 0) {
+                targets &= line(kingCell, from);
+            }
+            if (targets != 0) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    private Collection<Integer> getMovesForRook(int cell, Color ownColor) {
-        List<Integer> moves = new ArrayList<>();
+    /**
+     * Generates the legal replies to check: king moves, and (against a single checker) captures of the checker or
+     * interpositions between it and the king by pieces that are not themselves pinned.
+     */
+    private int generateEvasions(Color color, int[] out, int kingCell, long checkers, long pinned, long targetMask) {
+        int count = addKingMoves(color, out, 0, kingCell, targetMask);
+        if (Long.bitCount(checkers) > 1) {
+            // Nothing can block or take two checkers at once, so only the king may move
+            return count;
+        }
 
-        // Left ray
-        for (int target = cell - 1; target >= (cell / 8) * 8; target--) {
-            if (isEmpty(target)) {
-                moves.add(target);
-                continue;
-            } else if (pieces[target].getColor() != ownColor) {
-                moves.add(target);
-            }
-            break;
+        long evasionTargets = (checkers | between(kingCell, Long.numberOfTrailingZeros(checkers))) & targetMask;
+        for (long own = colorBitboards[color.ordinal()] & ~bit(kingCell) & ~pinned; own != 0; own &= own - 1) {
+            int from = Long.numberOfTrailingZeros(own);
+            count = addMoves(out, count, from, getTargetsWithoutThreatChecks(from, pieces[from]) & evasionTargets);
+        }
+        return count;
+    }
+
+    private int addKingMoves(Color color, int[] out, int count, int kingCell, long targetMask) {
+        return addMoves(out, count, kingCell, getKingTargets(color, kingCell) & targetMask);
+    }
+
+    private static int addMoves(int[] out, int count, int from, long targets) {
+        if (count + Long.bitCount(targets) > out.length) {
+            throw new IllegalArgumentException("Move buffer of " + out.length + " entries is too small");
+        }
+        for (; targets != 0; targets &= targets - 1) {
+            out[count++] = Moves.pack(from, Long.numberOfTrailingZeros(targets));
+        }
+        return count;
+    }
+
+    /**
+     * Fallback for boards without exactly one king of the given color (e.g. puzzles), where pins and checks are
+     * not well defined: each pseudo-legal move is tried in turn and kept if it leaves no king of ours attacked.
+     */
+    private int generateLegalMovesByTrial(Color color, int[] out, long targetMask) {
+        int count = 0;
+        for (long own = colorBitboards[color.ordinal()]; own != 0; own &= own - 1) {
+            int from = Long.numberOfTrailingZeros(own);
+            count = addMoves(out, count, from, getTargetsByTrial(from, pieces[from]) & targetMask);
+        }
+        return count;
+    }
+
+    private long getLegalTargets(int cell, Piece piece) {
+        Color color = piece.getColor();
+        int kingCell = getSoleKingCell(color);
+        if (kingCell < 0) {
+            return getTargetsByTrial(cell, piece);
+        } else if (kingCell == cell) {
+            return getKingTargets(color, kingCell);
+        }
+
+        long checkers = getCheckers(color, kingCell);
+        long targets = getTargetsWithoutThreatChecks(cell, piece);
+        if (Long.bitCount(checkers) > 1) {
+            return 0;
+        } else if (checkers != 0) {
+            targets &= checkers | between(kingCell, Long.numberOfTrailingZeros(checkers));
         }
+        if ((getPinnedPieces(color, kingCell) & bit(cell)) != 0) {
+            targets &= line(kingCell, cell);
+        }
+        return targets;
+    }
 
-        // Right ray
-        for (int target = cell + 1; target < (cell / 8) * 8 + 8; target++) {
-            if (isEmpty(target)) {
-                moves.add(target);
-                continue;
-            } else if (pieces[target].getColor() != ownColor) {
-                moves.add(target);
+    private long getTargetsByTrial(int cell, Piece piece) {
+        long targets = 0;
+        for (long candidates = getTargetsWithoutThreatChecks(cell, piece); candidates != 0; candidates &= candidates - 1) {
+            int target = Long.numberOfTrailingZeros(candidates);
+            if (!movePutsSelfInCheck(cell, target)) {
+                targets |= bit(target);
             }
-            break;
         }
+        return targets;
+    }
 
-        // Bottom ray
-        for (int target = cell - 8; target >= 0; target -= 8) {
-            if (isEmpty(target)) {
-                moves.add(target);
-                continue;
-            } else if (pieces[target].getColor() != ownColor) {
-                moves.add(target);
+    private long getKingTargets(Color color, int kingCell) {
+        long candidates = kingAttacks(kingCell) & ~colorBitboards[color.ordinal()];
+        if (!isAttacked(kingCell, color.inverse())) {
+            // With no slider aimed at the king, moving it cannot uncover any new attacks, so the attack map is exact
+            return candidates & ~attackMaps[color.inverse().ordinal()];
+        }
+
+        // Lift the king off the board while checking its destinations, so that it cannot hide behind itself
+        // from a slider that is already giving check.
+        long occupancyWithoutKing = occupied & ~bit(kingCell);
+        long opponents = colorBitboards[color.inverse().ordinal()];
+        long targets = 0;
+        for (; candidates != 0; candidates &= candidates - 1) {
+            int target = Long.numberOfTrailingZeros(candidates);
+            if ((getAttackers(target, occupancyWithoutKing) & opponents) == 0) {
+                targets |= bit(target);
             }
-            break;
         }
+        return targets;
+    }
 
-        // Top ray
-        for (int target = cell + 8; target < 64; target += 8) {
-            if (isEmpty(target)) {
-                moves.add(target);
-                continue;
-            } else if (pieces[target].getColor() != ownColor) {
-                moves.add(target);
+    /**
+     * Returns our pieces that are the only thing standing between our king and an enemy slider on the same line.
+     */
+    private long getPinnedPieces(Color color, int kingCell) {
+        int opponent = color.inverse().ordinal();
+        long enemyQueens = pieceBitboards[queenIndex(opponent)];
+        long snipers = (rookAttacks(kingCell, 0) & (pieceBitboards[rookIndex(opponent)] | enemyQueens)) |
+                       (bishopAttacks(kingCell, 0) & (pieceBitboards[bishopIndex(opponent)] | enemyQueens));
+
+        long pinned = 0;
+        for (; snipers != 0; snipers &= snipers - 1) {
+            long blockers = between(kingCell, Long.numberOfTrailingZeros(snipers)) & occupied;
+            if (Long.bitCount(blockers) == 1) {
+                pinned |= blockers & colorBitboards[color.ordinal()];
             }
-            break;
         }
+        return pinned;
+    }
 
-        return moves;
+    private long getCheckers(Color color, int kingCell) {
+        if (!isAttacked(kingCell, color.inverse())) {
+            return 0;
+        }
+        return getAttackers(kingCell, occupied) & colorBitboards[color.inverse().ordinal()];
     }
 
-    private Collection<Integer> getMovesForQueen(int cell, Color ownColor) {
-        List<Integer> moves = new ArrayList<>();
-        moves.addAll(getMovesForBishop(cell, ownColor));
-        moves.addAll(getMovesForRook(cell, ownColor));
-        return moves;
+    private int getSoleKingCell(Color color) {
+        long kings = pieceBitboards[kingIndex(color)];
+        if (kings == 0 || (kings & (kings - 1)) != 0) {
+            return -1;
+        }
+        return Long.numberOfTrailingZeros(kings);
     }
 
-    private Collection<Integer> getMovesForKing(int cell, Color ownColor) {
-        int rank = cell / 8;
-        int file = cell % 8;
-        boolean includeLeft = file > 0;
-        boolean includeRight = file < 7;
-        boolean includeBottom = rank > 0;
-        boolean includeTop = rank < 7;
+    private long getTargetsWithoutThreatChecks(int cell, Piece piece) {
+        Color color = piece.getColor();
+        long notOwn = ~colorBitboards[color.ordinal()];
+        switch (piece.getType()) {
+            case PAWN:
+                return getTargetsForPawn(cell, color);
+            case KNIGHT:
+                return knightAttacks(cell) & notOwn;
+            case BISHOP:
+                return bishopAttacks(cell, occupied) & notOwn;
+            case ROOK:
+                return rookAttacks(cell, occupied) & notOwn;
+            case QUEEN:
+                return queenAttacks(cell, occupied) & notOwn;
+            case KING:
+                return kingAttacks(cell) & notOwn;
+            default:
+                throw new IllegalArgumentException("Unknown piece type " + piece.getType());
+        }
+    }
 
-        List<Integer> moves = new ArrayList<>();
-        if (includeLeft && includeTop)
-            moves.add(cell + 7);
-        if (includeTop)
-            moves.add(cell + 8);
-        if (includeTop && includeRight)
-            moves.add(cell + 9);
-        if (includeRight)
-            moves.add(cell + 1);
-        if (includeRight && includeBottom)
-            moves.add(cell - 7);
-        if (includeBottom)
-            moves.add(cell - 8);
-        if (includeLeft && includeBottom)
-            moves.add(cell - 9);
-        if (includeLeft)
-            moves.add(cell - 1);
-
-        Predicate<Integer> isValidMove = square -> isEmpty(square) || pieces[square].getColor() != ownColor;
-        moves = moves.stream().filter(isValidMove).collect(Collectors.toList());
-        return moves;
+    private long getTargetsForPawn(int cell, Color ownColor) {
+        final long empty = ~occupied;
+        final long pawn = bit(cell);
+        long pushes;
+        if (ownColor == Color.WHITE) {
+            // A pawn on the last rank shifts off the board, so no moves are possible
+            long single = (pawn << 8) & empty;
+            pushes = single | (((single & (RANK_2 << 8)) << 8) & empty);
+        } else {
+            long single = (pawn >>> 8) & empty;
+            pushes = single | (((single & (RANK_7 >>> 8)) >>> 8) & empty);
+        }
+
+        // Pawns may only move diagonally when taking an enemy piece
+        long takes = pawnAttacks(ownColor, cell) & colorBitboards[ownColor.inverse().ordinal()];
+        return pushes | takes;
     }
 
     private boolean movePutsSelfInCheck(int from, int to) {
         Piece mover = pieces[from];
         Piece maybeTaken = pieces[to];
+        Color ownColor = mover.getColor();
 
         // Temporarily put the board into the position in question to check the threats
-        pieces[from] = null;
-        pieces[to] = mover;
-
-        Predicate<Integer> containsOwnKing = cell ->
-                !isEmpty(cell) &&
-                pieces[cell].getColor() == mover.getColor() &&
-                pieces[cell].getType() == PieceType.KING;
+        if (maybeTaken != null) {
+            removePiece(to, maybeTaken);
+        }
+        removePiece(from, mover);
+        addPiece(to, mover);
 
-        boolean result = getThreatenedSquares(mover.getColor().inverse())
-                    .stream()
-                    .anyMatch(containsOwnKing);
+        boolean result = isInCheck(ownColor);
 
         // Return the board to its original position
-        pieces[from] = mover;
-        pieces[to] = maybeTaken;
+        removePiece(to, mover);
+        addPiece(from, mover);
+        if (maybeTaken != null) {
+            addPiece(to, maybeTaken);
+        }
 
         return result;
     }
 
+    /**
+     * Returns whether any king of the given color is attacked. Rather than consulting every enemy piece, this looks
+     * outward from the king's cell for an enemy piece that could reach it, trying the cheap table lookups first.
+     */
+    public boolean isInCheck(Color color) {
+        for (long kings = pieceBitboards[kingIndex(color)]; kings != 0; kings &= kings - 1) {
+            if (isAttackedFromCell(Long.numberOfTrailingZeros(kings), color.inverse())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isAttackedFromCell(int cell, Color byColor) {
+        int colorOffset = byColor.ordinal() * PieceType.values().length;
+        if ((knightAttacks(cell) & pieceBitboards[colorOffset + PieceType.KNIGHT.ordinal()]) != 0 ||
+                (pawnAttacks(byColor.inverse(), cell) & pieceBitboards[colorOffset + PieceType.PAWN.ordinal()]) != 0 ||
+                (kingAttacks(cell) & pieceBitboards[colorOffset + PieceType.KING.ordinal()]) != 0) {
+            return true;
+        }
+
+        // Only trace the sliding rays if an enemy slider is aligned with the cell at all
+        long queens = pieceBitboards[colorOffset + PieceType.QUEEN.ordinal()];
+        long diagonalSliders = pieceBitboards[colorOffset + PieceType.BISHOP.ordinal()] | queens;
+        long straightSliders = pieceBitboards[colorOffset + PieceType.ROOK.ordinal()] | queens;
+        return ((bishopAttacks(cell, 0) & diagonalSliders) != 0 && (bishopAttacks(cell, occupied) & diagonalSliders) != 0) ||
+               ((rookAttacks(cell, 0) & straightSliders) != 0 && (rookAttacks(cell, occupied) & straightSliders) != 0);
+    }
+
+    /**
+     * Returns all pieces, of either color, attacking the given cell when the board has the given occupancy.
+     * Works outward from the cell: a knight attacks the cell exactly when a knight on the cell would attack it.
+     */
+    private long getAttackers(int cell, long occupancy) {
+        return (knightAttacks(cell) & (pieceBitboards[Piece.WHITE_KNIGHT.ordinal()] | pieceBitboards[Piece.BLACK_KNIGHT.ordinal()])) |
+               (kingAttacks(cell) & (pieceBitboards[Piece.WHITE_KING.ordinal()] | pieceBitboards[Piece.BLACK_KING.ordinal()])) |
+               (pawnAttacks(Color.BLACK, cell) & pieceBitboards[Piece.WHITE_PAWN.ordinal()]) |
+               (pawnAttacks(Color.WHITE, cell) & pieceBitboards[Piece.BLACK_PAWN.ordinal()]) |
+               (bishopAttacks(cell, occupancy) & getDiagonalSliders()) |
+               (rookAttacks(cell, occupancy) & getStraightSliders());
+    }
+
+    /**
+     * Returns whether any piece of the given color attacks the given cell. Cells holding pieces of that same color
+     * count as attacked if they are defended.
+     */
+    public boolean isAttacked(int cell, Color byColor) {
+        return (attackMaps[byColor.ordinal()] & bit(cell)) != 0;
+    }
+
+    /**
+     * Returns a mask of every cell attacked by at least one piece of the given color.
+     */
+    public long getAttackMap(Color byColor) {
+        return attackMaps[byColor.ordinal()];
+    }
+
+    public int getAttackerCount(int cell, Color byColor) {
+        return attackerCounts[byColor.ordinal()][cell];
+    }
+
     public Set<Integer> getThreatenedSquares(Color color) {
+        long threatened = 0;
+        for (long own = colorBitboards[color.ordinal()]; own != 0; own &= own - 1) {
+            int cell = Long.numberOfTrailingZeros(own);
+            threatened |= getTargetsWithoutThreatChecks(cell, pieces[cell]);
+        }
+
         Set<Integer> result = new HashSet<>();
-        for (int cell = 0; cell < 64; cell++) {
-            if (!isEmpty(cell) && pieces[cell].getColor() == color) {
-                result.addAll(getMovesForOccupiedCellWithoutThreatChecks(cell, pieces[cell]));
-            }
+        for (; threatened != 0; threatened &= threatened - 1) {
+            result.add(Long.numberOfTrailingZeros(threatened));
         }
         return result;
     }
 
-    private boolean isEmpty(int cell) {
-        return pieces[cell] == null;
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Board &&
+               zobristKey == ((Board) other).zobristKey &&
+               Arrays.equals(pieces, ((Board) other).pieces);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(zobristKey);
+    }
+
+    /**
+     * Places a piece on an empty cell of a freshly cleared board without updating the attack maps, for loading
+     * positions in bulk. {@link #finishSetUp()} must be called once all pieces are placed.
+     */
+    void setUpPiece(int cell, Piece piece) {
+        long mask = bit(cell);
+        pieces[cell] = piece;
+        pieceBitboards[piece.ordinal()] |= mask;
+        colorBitboards[piece.getColor().ordinal()] |= mask;
+        occupied |= mask;
+        zobristKey ^= Zobrist.pieceKey(piece, cell);
+        if (piece.getType() == PieceType.PAWN) {
+            pawnKey ^= Zobrist.pieceKey(piece, cell);
+        }
+        material[piece.getColor().ordinal()] += PieceValues.material(piece);
+        pieceSquareScores[piece.getColor().ordinal()] += PieceValues.pieceSquare(piece, cell);
+    }
+
+    /**
+     * Builds the attack maps for pieces placed with {@link #setUpPiece(int, Piece)}, in one pass rather than
+     * refreshing the sliders after every placement.
+     */
+    void finishSetUp() {
+        for (long remaining = occupied; remaining != 0; remaining &= remaining - 1) {
+            int cell = Long.numberOfTrailingZeros(remaining);
+            setPieceAttacks(cell, pieces[cell].getColor(), getAttacks(cell, pieces[cell]));
+        }
+    }
+
+    private void addPiece(int cell, Piece piece) {
+        long mask = bit(cell);
+        pieces[cell] = piece;
+        pieceBitboards[piece.ordinal()] |= mask;
+        colorBitboards[piece.getColor().ordinal()] |= mask;
+        occupied |= mask;
+        zobristKey ^= Zobrist.pieceKey(piece, cell);
+        if (piece.getType() == PieceType.PAWN) {
+            pawnKey ^= Zobrist.pieceKey(piece, cell);
+        }
+        material[piece.getColor().ordinal()] += PieceValues.material(piece);
+        pieceSquareScores[piece.getColor().ordinal()] += PieceValues.pieceSquare(piece, cell);
+
+        setPieceAttacks(cell, piece.getColor(), getAttacks(cell, piece));
+        refreshSlidersThrough(cell);
+    }
+
+    private void removePiece(int cell, Piece piece) {
+        setPieceAttacks(cell, piece.getColor(), 0);
+
+        long mask = ~bit(cell);
+        pieces[cell] = null;
+        pieceBitboards[piece.ordinal()] &= mask;
+        colorBitboards[piece.getColor().ordinal()] &= mask;
+        occupied &= mask;
+        zobristKey ^= Zobrist.pieceKey(piece, cell);
+        if (piece.getType() == PieceType.PAWN) {
+            pawnKey ^= Zobrist.pieceKey(piece, cell);
+        }
+        material[piece.getColor().ordinal()] -= PieceValues.material(piece);
+        pieceSquareScores[piece.getColor().ordinal()] -= PieceValues.pieceSquare(piece, cell);
+
+        refreshSlidersThrough(cell);
+    }
+
+    /**
+     * Recomputes the attacks of every slider whose rays reach the given cell, since filling or emptying the cell
+     * changes how far those rays extend.
+     */
+    private void refreshSlidersThrough(int cell) {
+        long sliders = (bishopAttacks(cell, occupied) & getDiagonalSliders()) |
+                       (rookAttacks(cell, occupied) & getStraightSliders());
+        for (; sliders != 0; sliders &= sliders - 1) {
+            int slider = Long.numberOfTrailingZeros(sliders);
+            setPieceAttacks(slider, pieces[slider].getColor(), getAttacks(slider, pieces[slider]));
+        }
+    }
+
+    private void setPieceAttacks(int cell, Color color, long attacks) {
+        byte[] counts = attackerCounts[color.ordinal()];
+        long previous = pieceAttacks[cell];
+        for (long lost = previous & ~attacks; lost != 0; lost &= lost - 1) {
+            int target = Long.numberOfTrailingZeros(lost);
+            if (--counts[target] == 0) {
+                attackMaps[color.ordinal()] &= ~bit(target);
+            }
+        }
+        for (long gained = attacks & ~previous; gained != 0; gained &= gained - 1) {
+            int target = Long.numberOfTrailingZeros(gained);
+            if (counts[target]++ == 0) {
+                attackMaps[color.ordinal()] |= bit(target);
+            }
+        }
+        pieceAttacks[cell] = attacks;
+    }
+
+    private long getAttacks(int cell, Piece piece) {
+        switch (piece.getType()) {
+            case PAWN:
+                return pawnAttacks(piece.getColor(), cell);
+            case KNIGHT:
+                return knightAttacks(cell);
+            case BISHOP:
+                return bishopAttacks(cell, occupied);
+            case ROOK:
+                return rookAttacks(cell, occupied);
+            case QUEEN:
+                return queenAttacks(cell, occupied);
+            case KING:
+                return kingAttacks(cell);
+            default:
+                throw new IllegalArgumentException("Unknown piece type " + piece.getType());
+        }
+    }
+
+    private long getDiagonalSliders() {
+        return pieceBitboards[Piece.WHITE_BISHOP.ordinal()] | pieceBitboards[Piece.BLACK_BISHOP.ordinal()] |
+               pieceBitboards[Piece.WHITE_QUEEN.ordinal()] | pieceBitboards[Piece.BLACK_QUEEN.ordinal()];
+    }
+
+    private long getStraightSliders() {
+        return pieceBitboards[Piece.WHITE_ROOK.ordinal()] | pieceBitboards[Piece.BLACK_ROOK.ordinal()] |
+               pieceBitboards[Piece.WHITE_QUEEN.ordinal()] | pieceBitboards[Piece.BLACK_QUEEN.ordinal()];
+    }
+
+    private static int kingIndex(Color color) {
+        return (color == Color.WHITE) ? Piece.WHITE_KING.ordinal() : Piece.BLACK_KING.ordinal();
+    }
+
+    private static int pawnIndex(int colorIndex) {
+        return Piece.WHITE_PAWN.ordinal() + colorIndex * PieceType.values().length;
+    }
+
+    private static int bishopIndex(int colorIndex) {
+        return Piece.WHITE_BISHOP.ordinal() + colorIndex * PieceType.values().length;
+    }
+
+    private static int rookIndex(int colorIndex) {
+        return Piece.WHITE_ROOK.ordinal() + colorIndex * PieceType.values().length;
+    }
+
+    private static int queenIndex(int colorIndex) {
+        return Piece.WHITE_QUEEN.ordinal() + colorIndex * PieceType.values().length;
     }
 }
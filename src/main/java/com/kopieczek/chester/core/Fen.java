@@ -0,0 +1,156 @@
+package com.kopieczek.chester.core;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation.
+ *
+ * Only the piece placement and side to move fields affect the position, since the rules do not yet include castling,
+ * en passant or move clocks. The remaining fields are optional when reading and are written as "- - 0 1". Anything
+ * after the side to move (such as EPD operations) is ignored, so EPD lines can be read as well.
+ *
+ * Parsing works directly on the given {@link CharSequence} without creating substrings, so a single reusable buffer
+ * and {@link Board} can be used to load a large number of positions; see {@link FenReader}.
+ */
+public class Fen {
+    public static final String STANDARD_SETUP = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1";
+
+    private static final String SYMBOLS = "PNBRQKpnbrqk";
+    private static final Piece[] PIECES_BY_SYMBOL = new Piece[128];
+
+    static {
+        for (Piece piece : Piece.values()) {
+            PIECES_BY_SYMBOL[SYMBOLS.charAt(piece.ordinal())] = piece;
+        }
+    }
+
+    public static Game parse(CharSequence fen) {
+        Board board = new Board();
+        Color activePlayer = parseInto(fen, board);
+        return new Game(board, activePlayer);
+    }
+
+    /**
+     * Clears the given board and sets up the position described by the FEN record on it. If the record is invalid
+     * the board is left empty.
+     *
+     * @return the side to move
+     */
+    public static Color parseInto(CharSequence fen, Board board) {
+        board.clear();
+        try {
+            return parsePosition(fen, board);
+        } catch (IllegalArgumentException e) {
+            board.clear();
+            throw e;
+        }
+    }
+
+    private static Color parsePosition(CharSequence fen, Board board) {
+        int length = fen.length();
+        int idx = 0;
+        while (idx < length && fen.charAt(idx) == ' ') {
+            idx++;
+        }
+
+        int rank = 7;
+        int file = 0;
+        for (; idx < length && fen.charAt(idx) != ' '; idx++) {
+            char symbol = fen.charAt(idx);
+            if (symbol == '/') {
+                if (file != 8 || rank == 0) {
+                    throw invalid(fen, "rank " + (rank + 1) + " does not have 8 files");
+                }
+                rank--;
+                file = 0;
+            } else if (symbol >= '1' && symbol <= '8') {
+                file += symbol - '0';
+            } else {
+                Piece piece = toPiece(symbol);
+                if (file > 7) {
+                    throw invalid(fen, "rank " + (rank + 1) + " has more than 8 files");
+                }
+                board.setUpPiece(rank * 8 + file, piece);
+                file++;
+            }
+
+            if (file > 8) {
+                throw invalid(fen, "rank " + (rank + 1) + " has more than 8 files");
+            }
+        }
+        if (rank != 0 || file != 8) {
+            throw invalid(fen, "expected 8 complete ranks");
+        }
+        board.finishSetUp();
+
+        while (idx < length && fen.charAt(idx) == ' ') {
+            idx++;
+        }
+        if (idx == length) {
+            throw invalid(fen, "missing side to move");
+        }
+        char side = fen.charAt(idx);
+        if (side == 'w') {
+            return Color.WHITE;
+        } else if (side == 'b') {
+            return Color.BLACK;
+        } else {
+            throw invalid(fen, "unknown side to move '" + side + "'");
+        }
+    }
+
+    public static String write(Game game) {
+        return write(game.getBoard(), game.getActivePlayer());
+    }
+
+    public static String write(Board board, Color activePlayer) {
+        StringBuilder fen = new StringBuilder(90);
+        appendTo(fen, board, activePlayer);
+        return fen.toString();
+    }
+
+    /**
+     * Appends the FEN record for the given position, for writing many positions without building a string for each.
+     */
+    public static void appendTo(StringBuilder out, Board board, Color activePlayer) {
+        for (int rank = 7; rank >= 0; rank--) {
+            int emptyRun = 0;
+            for (int file = 0; file < 8; file++) {
+                Piece piece = board.get(rank * 8 + file).orElse(null);
+                if (piece == null) {
+                    emptyRun++;
+                    continue;
+                }
+                if (emptyRun > 0) {
+                    out.append((char) ('0' + emptyRun));
+                    emptyRun = 0;
+                }
+                out.append(toSymbol(piece));
+            }
+            if (emptyRun > 0) {
+                out.append((char) ('0' + emptyRun));
+            }
+            if (rank > 0) {
+                out.append('/');
+            }
+        }
+        out.append(activePlayer == Color.WHITE ? " w" : " b").append(" - - 0 1");
+    }
+
+    /**
+     * Returns the piece for a FEN letter: upper case for white, lower case for black.
+     */
+    public static Piece toPiece(char symbol) {
+        Piece piece = (symbol < PIECES_BY_SYMBOL.length) ? PIECES_BY_SYMBOL[symbol] : null;
+        if (piece == null) {
+            throw new IllegalArgumentException("Unknown piece symbol '" + symbol + "'");
+        }
+        return piece;
+    }
+
+    public static char toSymbol(Piece piece) {
+        return SYMBOLS.charAt(piece.ordinal());
+    }
+
+    private static IllegalArgumentException invalid(CharSequence fen, String reason) {
+        return new IllegalArgumentException("Invalid FEN '" + fen + "': " + reason);
+    }
+}
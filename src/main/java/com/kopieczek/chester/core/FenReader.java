@@ -0,0 +1,96 @@
+package com.kopieczek.chester.core;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streams positions from a file of FEN or EPD records, one per line, without holding the file in memory. Each record
+ * is read into a reused buffer and set up on a caller-supplied board, so iterating over millions of positions does
+ * not allocate per position.
+ *
+ * Blank lines and lines starting with '#' are skipped.
+ */
+public class FenReader implements Closeable {
+    private final Reader reader;
+    private final char[] chunk = new char[1 << 16];
+    private final StringBuilder line = new StringBuilder(128);
+    private int chunkLength;
+    private int chunkIndex;
+    private long lineNumber;
+    private Color activePlayer;
+
+    public FenReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    public static FenReader open(File file) throws IOException {
+        return new FenReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Sets up the next position from the file on the given board.
+     *
+     * @return false once the end of the file has been reached
+     * @throws IllegalArgumentException if a record is not valid FEN
+     */
+    public boolean next(Board board) throws IOException {
+        while (readLine()) {
+            if (line.length() == 0 || line.charAt(0) == '#') {
+                continue;
+            }
+            try {
+                activePlayer = Fen.parseInto(line, board);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage(), e);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the side to move in the position most recently read.
+     */
+    public Color getActivePlayer() {
+        return activePlayer;
+    }
+
+    /**
+     * Returns the raw text of the record most recently read, e.g. to get at EPD operations. The contents are only
+     * valid until the next call to {@link #next(Board)}.
+     */
+    public CharSequence getLine() {
+        return line;
+    }
+
+    private boolean readLine() throws IOException {
+        line.setLength(0);
+        while (true) {
+            if (chunkIndex == chunkLength) {
+                chunkLength = reader.read(chunk);
+                chunkIndex = 0;
+                if (chunkLength <= 0) {
+                    chunkLength = 0;
+                    if (line.length() == 0) {
+                        return false;
+                    }
+                    lineNumber++;
+                    return true;
+                }
+            }
+
+            char c = chunk[chunkIndex++];
+            if (c == '\n') {
+                lineNumber++;
+                return true;
+            } else if (c != '\r') {
+                line.append(c);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
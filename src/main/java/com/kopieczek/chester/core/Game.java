@@ -1,15 +1,23 @@
 package com.kopieczek.chester.core;
 
-import java.util.*;
-
 import static com.kopieczek.chester.core.GameState.*;
 
 public class Game {
     private final Board board;
-    private Color activePlayer = Color.WHITE;
+    private Color activePlayer;
+
+    // The state of the last position queried, keyed by its Zobrist key, so that repeated queries (e.g. on every
+    // repaint) are free until the position changes.
+    private long cachedStateKey;
+    private GameState cachedState;
 
     public Game(Board board) {
+        this(board, Color.WHITE);
+    }
+
+    public Game(Board board, Color activePlayer) {
         this.board = board;
+        this.activePlayer = activePlayer;
     }
 
     public Color getActivePlayer() {
@@ -25,39 +33,32 @@ public class Game {
         return board;
     }
 
+    /**
+     * Returns a Zobrist key identifying both the position of the pieces and whose turn it is.
+     */
+    public long getZobristKey() {
+        return board.getZobristKey() ^ Zobrist.sideToMoveKey(activePlayer);
+    }
+
     public GameState getState() {
-        return getState(board, activePlayer);
+        long key = getZobristKey();
+        if (cachedState == null || cachedStateKey != key) {
+            cachedState = getState(board, activePlayer);
+            cachedStateKey = key;
+        }
+        return cachedState;
     }
 
     public static GameState getState(Board board, Color activePlayer) {
-        Set<Integer> opponentThreats = board.getThreatenedSquares(activePlayer.inverse());
-        int ourKing = -1;
-
-        List<Integer> ourMoves = new ArrayList<>();
-        for (int cell = 0; cell < 64; cell++) {
-            if (!board.get(cell).isPresent()) {
-                continue;
-            }
-
-            Piece piece = board.get(cell).get();
-            if (piece.getColor() != activePlayer) {
-                continue;
-            }
-
-            if (piece.getType() == PieceType.KING) {
-                ourKing = cell;
-            }
-
-            ourMoves.addAll(board.getMoves(cell));
+        if (board.hasLegalMove(activePlayer)) {
+            return PLAYING;
         }
 
-        if (ourMoves.size() == 0) {
-            if (opponentThreats.contains(ourKing)) {
-                return (activePlayer == Color.WHITE) ? BLACK_WINS : WHITE_WINS;
-            } else {
-                return STALEMATE;
-            }
+        // Only once we know the game is over does it matter whether we are in check
+        if (board.isInCheck(activePlayer)) {
+            return (activePlayer == Color.WHITE) ? BLACK_WINS : WHITE_WINS;
+        } else {
+            return STALEMATE;
         }
-        return PLAYING;
     }
 }
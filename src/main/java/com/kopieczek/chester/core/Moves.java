@@ -0,0 +1,28 @@
+package com.kopieczek.chester.core;
+
+/**
+ * Helpers for moves packed into a single int, with the origin cell in bits 0-5 and the target cell in bits 6-11.
+ */
+public class Moves {
+    /**
+     * Large enough to hold every legal move in any position reachable from the standard setup, which never has more
+     * than 218. Boards set up by hand, with many queens say, can have more; generating their moves into a buffer of
+     * this size fails.
+     */
+    public static final int MAX_MOVES = 256;
+
+    /** Stands for the absence of a move; a1 to a1 can never be played. */
+    public static final int NONE = 0;
+
+    public static int pack(int from, int to) {
+        return from | (to << 6);
+    }
+
+    public static int from(int move) {
+        return move & 0x3f;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3f;
+    }
+}
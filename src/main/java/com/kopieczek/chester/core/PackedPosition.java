@@ -0,0 +1,104 @@
+package com.kopieczek.chester.core;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A fixed-width binary encoding of a position, for storing very large numbers of them compactly.
+ *
+ * Each record is {@link #RECORD_SIZE} bytes, written in the buffer's byte order (big-endian unless changed):
+ * <ul>
+ *     <li>8 bytes: occupancy mask, with bit n set if cell n holds a piece</li>
+ *     <li>16 bytes: a 4-bit code (the piece's ordinal) for each occupied cell in ascending cell order, starting from
+ *     the low bits of the first word; unused trailing nibbles are zero</li>
+ *     <li>8 bytes: flags; bit 0 is set when black is to move, and the remaining bits are reserved</li>
+ * </ul>
+ *
+ * At most 32 pieces can be encoded, which is enough for any position reachable in a game.
+ */
+public class PackedPosition {
+    public static final int RECORD_SIZE = 32;
+    public static final int MAX_PIECES = 32;
+
+    private static final long BLACK_TO_MOVE = 1;
+    private static final Piece[] PIECES = Piece.values();
+
+    /**
+     * Writes the position at the buffer's current position, advancing it by {@link #RECORD_SIZE}.
+     */
+    public static void encode(Board board, Color activePlayer, ByteBuffer out) {
+        encode(board, activePlayer, out, out.position());
+        out.position(out.position() + RECORD_SIZE);
+    }
+
+    /**
+     * Writes the position at the given offset, without moving the buffer's position.
+     */
+    public static void encode(Board board, Color activePlayer, ByteBuffer out, int offset) {
+        long occupancy = 0;
+        long codes = 0;
+        long moreCodes = 0;
+        int pieceCount = 0;
+        for (int cell = 0; cell < 64; cell++) {
+            Piece piece = board.get(cell).orElse(null);
+            if (piece == null) {
+                continue;
+            }
+            if (pieceCount == MAX_PIECES) {
+                throw new IllegalArgumentException("Cannot pack a position with more than " + MAX_PIECES + " pieces");
+            }
+            occupancy |= Bitboards.bit(cell);
+            long code = (long) piece.ordinal() << (4 * (pieceCount % 16));
+            if (pieceCount < 16) {
+                codes |= code;
+            } else {
+                moreCodes |= code;
+            }
+            pieceCount++;
+        }
+
+        out.putLong(offset, occupancy);
+        out.putLong(offset + 8, codes);
+        out.putLong(offset + 16, moreCodes);
+        out.putLong(offset + 24, (activePlayer == Color.BLACK) ? BLACK_TO_MOVE : 0);
+    }
+
+    /**
+     * Sets up the position at the buffer's current position on the given board, advancing the buffer by
+     * {@link #RECORD_SIZE}.
+     *
+     * @return the side to move
+     */
+    public static Color decode(ByteBuffer in, Board board) {
+        Color activePlayer = decode(in, in.position(), board);
+        in.position(in.position() + RECORD_SIZE);
+        return activePlayer;
+    }
+
+    /**
+     * Sets up the position at the given offset on the given board, without moving the buffer's position or
+     * allocating.
+     *
+     * @return the side to move
+     */
+    public static Color decode(ByteBuffer in, int offset, Board board) {
+        long occupancy = in.getLong(offset);
+        long codes = in.getLong(offset + 8);
+        long moreCodes = in.getLong(offset + 16);
+        long flags = in.getLong(offset + 24);
+        if (Long.bitCount(occupancy) > MAX_PIECES) {
+            throw new IllegalArgumentException("Corrupt record: " + Long.bitCount(occupancy) + " pieces");
+        }
+
+        board.clear();
+        for (int idx = 0; occupancy != 0; idx++, occupancy &= occupancy - 1) {
+            int code = (int) (((idx < 16) ? codes : moreCodes) >>> (4 * (idx % 16))) & 0xf;
+            if (code >= PIECES.length) {
+                board.clear();
+                throw new IllegalArgumentException("Corrupt record: unknown piece code " + code);
+            }
+            board.setUpPiece(Long.numberOfTrailingZeros(occupancy), PIECES[code]);
+        }
+        board.finishSetUp();
+        return ((flags & BLACK_TO_MOVE) != 0) ? Color.BLACK : Color.WHITE;
+    }
+}
@@ -0,0 +1,103 @@
+package com.kopieczek.chester.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read access to a file of {@link PackedPosition} records through memory mapping, so that datasets much larger than
+ * the heap can be walked without reading them in. Files over 2GB are mapped in several chunks.
+ *
+ * Positions are decoded onto a caller-supplied board, so iterating allocates nothing per record. Instances are not
+ * thread-safe, but several may be opened on the same file.
+ */
+public class PackedPositionFile implements Closeable {
+    // 2^25 records of 32 bytes makes each mapped chunk 1GB, comfortably below the 2GB limit of a single mapping
+    private static final int RECORDS_PER_CHUNK_SHIFT = 25;
+    private static final long RECORDS_PER_CHUNK = 1L << RECORDS_PER_CHUNK_SHIFT;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] chunks;
+    private final long recordCount;
+    private long nextIndex;
+    private Color activePlayer;
+
+    private PackedPositionFile(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size % PackedPosition.RECORD_SIZE != 0) {
+            throw new IOException("File size " + size + " is not a whole number of records");
+        }
+
+        this.channel = channel;
+        this.recordCount = size / PackedPosition.RECORD_SIZE;
+        this.chunks = new MappedByteBuffer[(int) ((recordCount + RECORDS_PER_CHUNK - 1) / RECORDS_PER_CHUNK)];
+        for (int chunk = 0; chunk < chunks.length; chunk++) {
+            long start = chunk * RECORDS_PER_CHUNK * PackedPosition.RECORD_SIZE;
+            long length = Math.min(RECORDS_PER_CHUNK * PackedPosition.RECORD_SIZE, size - start);
+            chunks[chunk] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        }
+    }
+
+    public static PackedPositionFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new PackedPositionFile(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long size() {
+        return recordCount;
+    }
+
+    /**
+     * Sets up the record at the given index on the board.
+     *
+     * @return the side to move
+     */
+    public Color read(long index, Board board) {
+        if (index < 0 || index >= recordCount) {
+            throw new IndexOutOfBoundsException("Record " + index + " of " + recordCount);
+        }
+        int chunk = (int) (index >>> RECORDS_PER_CHUNK_SHIFT);
+        int offset = (int) (index & (RECORDS_PER_CHUNK - 1)) * PackedPosition.RECORD_SIZE;
+        return PackedPosition.decode(chunks[chunk], offset, board);
+    }
+
+    /**
+     * Sets up the next record in sequence on the board.
+     *
+     * @return false once every record has been read
+     */
+    public boolean next(Board board) {
+        if (nextIndex == recordCount) {
+            return false;
+        }
+        activePlayer = read(nextIndex++, board);
+        return true;
+    }
+
+    /**
+     * Returns the side to move in the record most recently read by {@link #next(Board)}.
+     */
+    public Color getActivePlayer() {
+        return activePlayer;
+    }
+
+    public void rewind() {
+        nextIndex = 0;
+    }
+
+    /**
+     * Closes the underlying file. The mappings themselves are released when they are garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,54 @@
+package com.kopieczek.chester.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends {@link PackedPosition} records to a file, for reading back with {@link PackedPositionFile}.
+ */
+public class PackedPositionWriter implements Closeable {
+    private static final int RECORDS_PER_FLUSH = 4096;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(RECORDS_PER_FLUSH * PackedPosition.RECORD_SIZE);
+
+    private PackedPositionWriter(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Opens the file for writing, creating it if necessary and appending to any records already present.
+     */
+    public static PackedPositionWriter open(Path path) throws IOException {
+        return new PackedPositionWriter(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                         StandardOpenOption.APPEND));
+    }
+
+    public void write(Board board, Color activePlayer) throws IOException {
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        PackedPosition.encode(board, activePlayer, buffer);
+    }
+
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.kopieczek.chester.core;
+
+/**
+ * Static values of pieces, which {@link Board} totals incrementally for each side as pieces come and go.
+ *
+ * Material is counted in pawns. Piece-square values are a bonus or penalty in centipawns for a piece standing on a
+ * particular cell: knights and bishops want the centre, pawns want to advance, and the king wants to stay tucked away
+ * behind its pawns. The tables below are laid out as seen from white's side of the board, with the eighth rank at the
+ * top; black's are the same tables mirrored top to bottom.
+ */
+public class PieceValues {
+    private static final int[] MATERIAL = {1, 3, 3, 7, 9, 0};
+
+    private static final int[][] WHITE_TABLES = {
+            {   // Pawn
+                      0,   0,   0,   0,   0,   0,   0,   0,
+                     50,  50,  50,  50,  50,  50,  50,  50,
+                     10,  10,  20,  30,  30,  20,  10,  10,
+                      5,   5,  10,  25,  25,  10,   5,   5,
+                      0,   0,   0,  20,  20,   0,   0,   0,
+                      5,  -5, -10,   0,   0, -10,  -5,   5,
+                      5,  10,  10, -20, -20,  10,  10,   5,
+                      0,   0,   0,   0,   0,   0,   0,   0,
+            },
+            {   // Knight
+                    -50, -40, -30, -30, -30, -30, -40, -50,
+                    -40, -20,   0,   0,   0,   0, -20, -40,
+                    -30,   0,  10,  15,  15,  10,   0, -30,
+                    -30,   5,  15,  20,  20,  15,   5, -30,
+                    -30,   0,  15,  20,  20,  15,   0, -30,
+                    -30,   5,  10,  15,  15,  10,   5, -30,
+                    -40, -20,   0,   5,   5,   0, -20, -40,
+                    -50, -40, -30, -30, -30, -30, -40, -50,
+            },
+            {   // Bishop
+                    -20, -10, -10, -10, -10, -10, -10, -20,
+                    -10,   0,   0,   0,   0,   0,   0, -10,
+                    -10,   0,   5,  10,  10,   5,   0, -10,
+                    -10,   5,   5,  10,  10,   5,   5, -10,
+                    -10,   0,  10,  10,  10,  10,   0, -10,
+                    -10,  10,  10,  10,  10,  10,  10, -10,
+                    -10,   5,   0,   0,   0,   0,   5, -10,
+                    -20, -10, -10, -10, -10, -10, -10, -20,
+            },
+            {   // Rook
+                      0,   0,   0,   0,   0,   0,   0,   0,
+                      5,  10,  10,  10,  10,  10,  10,   5,
+                     -5,   0,   0,   0,   0,   0,   0,  -5,
+                     -5,   0,   0,   0,   0,   0,   0,  -5,
+                     -5,   0,   0,   0,   0,   0,   0,  -5,
+                     -5,   0,   0,   0,   0,   0,   0,  -5,
+                     -5,   0,   0,   0,   0,   0,   0,  -5,
+                      0,   0,   0,   5,   5,   0,   0,   0,
+            },
+            {   // Queen
+                    -20, -10, -10,  -5,  -5, -10, -10, -20,
+                    -10,   0,   0,   0,   0,   0,   0, -10,
+                    -10,   0,   5,   5,   5,   5,   0, -10,
+                     -5,   0,   5,   5,   5,   5,   0,  -5,
+                      0,   0,   5,   5,   5,   5,   0,  -5,
+                    -10,   5,   5,   5,   5,   5,   0, -10,
+                    -10,   0,   5,   0,   0,   0,   0, -10,
+                    -20, -10, -10,  -5,  -5, -10, -10, -20,
+            },
+            {   // King
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -20, -30, -30, -40, -40, -30, -30, -20,
+                    -10, -20, -20, -20, -20, -20, -20, -10,
+                     20,  20,   0,   0,   0,   0,  20,  20,
+                     20,  30,  10,   0,   0,  10,  30,  20,
+            },
+    };
+
+    // Indexed by piece ordinal, then by cell in the board's own order (a1 = 0)
+    private static final int[][] PIECE_SQUARE = new int[Piece.values().length][64];
+
+    static {
+        for (Piece piece : Piece.values()) {
+            int[] table = WHITE_TABLES[piece.getType().ordinal()];
+            for (int cell = 0; cell < 64; cell++) {
+                // The tables are drawn eighth rank first, so white needs its rank flipped to look them up and black,
+                // seeing the board from the other side, does not
+                int row = (piece.getColor() == Color.WHITE) ? cell ^ 56 : cell;
+                PIECE_SQUARE[piece.ordinal()][cell] = table[row];
+            }
+        }
+    }
+
+    public static int material(Piece piece) {
+        return MATERIAL[piece.getType().ordinal()];
+    }
+
+    public static int pieceSquare(Piece piece, int cell) {
+        return PIECE_SQUARE[piece.ordinal()][cell];
+    }
+}
@@ -0,0 +1,248 @@
+package com.kopieczek.chester.core;
+
+/**
+ * Hands out the legal moves of one side a stage at a time, most promising first, only generating a stage once the
+ * previous one has been used up. A search that cuts off after the first move or two never pays for the rest.
+ *
+ * The stages are: the hash move; captures that do not lose material, most valuable victim first; killer moves;
+ * quiet moves; and finally captures of defended pieces by more valuable attackers. In captures-only mode the killer
+ * and quiet stages are skipped.
+ *
+ * Quiet moves come out in generation order, or, if the generator is given a history table, highest scoring first. The
+ * table is indexed by {@link #getHistoryIndex(Color, int)} and is read as it stands whenever quiet moves are reached,
+ * so a search can keep updating it.
+ *
+ * A generator is meant to be kept per ply of a search and reset at each node; it does not allocate after
+ * construction.
+ */
+public class StagedMoveGenerator {
+    private static final int HASH_MOVE = 0;
+    private static final int GENERATE_CAPTURES = 1;
+    private static final int WINNING_CAPTURES = 2;
+    private static final int KILLERS = 3;
+    private static final int QUIETS = 4;
+    private static final int LOSING_CAPTURES = 5;
+    private static final int DONE = 6;
+
+    // Kings have no material value, so for ranking captures they count as worth more than any other piece
+    private static final int KING_ORDERING_VALUE = 100;
+
+    /**
+     * The size of a history table: one score per side per packed move.
+     */
+    public static final int HISTORY_SIZE = 2 * 64 * 64;
+
+    private Board board;
+    private final int[] history;
+    private final int[] buffer = new int[Moves.MAX_MOVES];
+    private final int[] captures = new int[Moves.MAX_MOVES];
+    private final int[] captureScores = new int[Moves.MAX_MOVES];
+    private final int[] losingCaptures = new int[Moves.MAX_MOVES];
+    private final int[] losingCaptureScores = new int[Moves.MAX_MOVES];
+    private final int[] quiets = new int[Moves.MAX_MOVES];
+    private final int[] quietScores = new int[Moves.MAX_MOVES];
+    private final int[] killers = new int[2];
+
+    private Color color;
+    private boolean capturesOnly;
+    private int hashMove;
+    private int stage;
+    private int captureCount;
+    private int captureIndex;
+    private int losingCaptureCount;
+    private int losingCaptureIndex;
+    private int quietCount;
+    private int quietIndex;
+    private int killerIndex;
+
+    public StagedMoveGenerator(Board board) {
+        this(board, null);
+    }
+
+    /**
+     * Creates a generator that orders quiet moves by the given history table, of size {@link #HISTORY_SIZE}.
+     */
+    public StagedMoveGenerator(Board board, int[] history) {
+        this.board = board;
+        this.history = history;
+    }
+
+    /**
+     * Switches to generating moves on the given board, keeping this generator's buffers. Call {@link #reset} before
+     * asking for moves.
+     */
+    public void setBoard(Board board) {
+        this.board = board;
+    }
+
+    /**
+     * Returns the index of the given side's move in a history table.
+     */
+    public static int getHistoryIndex(Color color, int move) {
+        return (color.ordinal() << 12) | move;
+    }
+
+    /**
+     * Prepares to generate all legal moves for the given color. Any of the suggested moves may be
+     * {@link Moves#NONE}, and suggestions that are not legal in the current position are ignored.
+     */
+    public void reset(Color color, int hashMove, int firstKiller, int secondKiller) {
+        this.color = color;
+        this.capturesOnly = false;
+        this.hashMove = hashMove;
+        this.killers[0] = firstKiller;
+        this.killers[1] = secondKiller;
+        this.stage = HASH_MOVE;
+    }
+
+    /**
+     * Prepares to generate only the legal captures for the given color.
+     */
+    public void resetForCaptures(Color color, int hashMove) {
+        reset(color, hashMove, Moves.NONE, Moves.NONE);
+        this.capturesOnly = true;
+    }
+
+    /**
+     * Returns whether the move last handed out was an ordinary quiet move: neither a capture, the hash move nor a
+     * killer. These come late in the order, and are the least likely to be any good.
+     */
+    public boolean isInQuietStage() {
+        return stage == QUIETS;
+    }
+
+    /**
+     * Returns the next move, or {@link Moves#NONE} once every move has been handed out.
+     */
+    public int next() {
+        while (true) {
+            switch (stage) {
+                case HASH_MOVE:
+                    stage = GENERATE_CAPTURES;
+                    if (hashMove != Moves.NONE && board.isLegalMove(color, hashMove) &&
+                            (!capturesOnly || isCapture(hashMove))) {
+                        return hashMove;
+                    }
+                    hashMove = Moves.NONE;
+                    break;
+                case GENERATE_CAPTURES:
+                    generateCaptures();
+                    stage = WINNING_CAPTURES;
+                    break;
+                case WINNING_CAPTURES:
+                    if (captureIndex < captureCount) {
+                        int move = selectBest(captures, captureScores, captureIndex++, captureCount);
+                        if (move != hashMove) {
+                            return move;
+                        }
+                        break;
+                    }
+                    stage = capturesOnly ? LOSING_CAPTURES : KILLERS;
+                    killerIndex = 0;
+                    break;
+                case KILLERS:
+                    if (killerIndex < killers.length) {
+                        int killer = killers[killerIndex++];
+                        if (isUsableKiller(killer) && (killerIndex == 1 || killer != killers[0])) {
+                            return killer;
+                        }
+                        break;
+                    }
+                    stage = QUIETS;
+                    generateQuiets();
+                    break;
+                case QUIETS:
+                    if (quietIndex < quietCount) {
+                        int move = (history == null) ? quiets[quietIndex++] :
+                                selectBest(quiets, quietScores, quietIndex++, quietCount);
+                        if (move != hashMove && !isUsableKiller(move)) {
+                            return move;
+                        }
+                        break;
+                    }
+                    stage = LOSING_CAPTURES;
+                    break;
+                case LOSING_CAPTURES:
+                    if (losingCaptureIndex < losingCaptureCount) {
+                        int move = selectBest(losingCaptures, losingCaptureScores, losingCaptureIndex++, losingCaptureCount);
+                        if (move != hashMove) {
+                            return move;
+                        }
+                        break;
+                    }
+                    stage = DONE;
+                    break;
+                default:
+                    return Moves.NONE;
+            }
+        }
+    }
+
+    private void generateCaptures() {
+        int count = board.generateLegalCaptures(color, buffer);
+        captureCount = 0;
+        captureIndex = 0;
+        losingCaptureCount = 0;
+        losingCaptureIndex = 0;
+        for (int idx = 0; idx < count; idx++) {
+            int move = buffer[idx];
+            int attacker = getValue(Moves.from(move));
+            int victim = getValue(Moves.to(move));
+
+            // Most valuable victim first, and among equal victims the least valuable attacker
+            int score = victim * 128 - attacker;
+            if (attacker > victim && board.isAttacked(Moves.to(move), color.inverse())) {
+                losingCaptures[losingCaptureCount] = move;
+                losingCaptureScores[losingCaptureCount++] = score;
+            } else {
+                captures[captureCount] = move;
+                captureScores[captureCount++] = score;
+            }
+        }
+    }
+
+    private void generateQuiets() {
+        quietCount = board.generateLegalQuiets(color, quiets);
+        quietIndex = 0;
+        if (history != null) {
+            for (int idx = 0; idx < quietCount; idx++) {
+                quietScores[idx] = history[getHistoryIndex(color, quiets[idx])];
+            }
+        }
+    }
+
+    private boolean isUsableKiller(int move) {
+        return move != Moves.NONE && move != hashMove && (move == killers[0] || move == killers[1]) &&
+               !isCapture(move) && board.isLegalMove(color, move);
+    }
+
+    private boolean isCapture(int move) {
+        return board.get(Moves.to(move)).isPresent();
+    }
+
+    private int getValue(int cell) {
+        Piece piece = board.get(cell).get();
+        return (piece.getType() == PieceType.KING) ? KING_ORDERING_VALUE : PieceValues.material(piece);
+    }
+
+    /**
+     * Swaps the highest scoring of the remaining moves into position {@code from} and returns it. Doing this lazily
+     * means that moves after a cutoff are never sorted at all.
+     */
+    private static int selectBest(int[] moves, int[] scores, int from, int count) {
+        int best = from;
+        for (int idx = from + 1; idx < count; idx++) {
+            if (scores[idx] > scores[best]) {
+                best = idx;
+            }
+        }
+
+        int move = moves[best];
+        moves[best] = moves[from];
+        moves[from] = move;
+        int score = scores[best];
+        scores[best] = scores[from];
+        scores[from] = score;
+        return move;
+    }
+}
@@ -0,0 +1,42 @@
+package com.kopieczek.chester.core;
+
+/**
+ * Random keys for Zobrist hashing. A position's key is the XOR of the key for each piece on its cell, plus
+ * {@link #BLACK_TO_MOVE} when it is black's turn, so it can be updated with a couple of XORs as pieces move.
+ *
+ * The keys are generated from a fixed seed so that they are stable between runs.
+ */
+public class Zobrist {
+    private static final long[][] PIECE_KEYS = new long[Piece.values().length][64];
+    public static final long BLACK_TO_MOVE;
+
+    static {
+        long seed = 0x9e3779b97f4a7c15L;
+        for (long[] keys : PIECE_KEYS) {
+            for (int cell = 0; cell < 64; cell++) {
+                seed = nextSeed(seed);
+                keys[cell] = mix(seed);
+            }
+        }
+        BLACK_TO_MOVE = mix(nextSeed(seed));
+    }
+
+    public static long pieceKey(Piece piece, int cell) {
+        return PIECE_KEYS[piece.ordinal()][cell];
+    }
+
+    public static long sideToMoveKey(Color activePlayer) {
+        return (activePlayer == Color.BLACK) ? BLACK_TO_MOVE : 0;
+    }
+
+    private static long nextSeed(long seed) {
+        return seed + 0x9e3779b97f4a7c15L;
+    }
+
+    // SplitMix64 finaliser
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
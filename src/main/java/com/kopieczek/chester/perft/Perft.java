@@ -0,0 +1,173 @@
+package com.kopieczek.chester.perft;
+
+import com.kopieczek.chester.core.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth, for validating and benchmarking move generation.
+ *
+ * Usage: {@code Perft <depth> [--divide] [--threads N] [--black] [--fen <fen> | --pieces Ke1 Qd1 ke8 ...]}
+ *
+ * Pieces are given as a letter (upper case for white, lower case for black, as in FEN) followed by the cell. Without
+ * --fen or --pieces the standard starting position is used.
+ */
+public class Perft {
+    private final Board board;
+    private final int[][] moveBuffers;
+
+    public Perft(Board board, int maxDepth) {
+        this.board = board;
+        this.moveBuffers = new int[Math.max(maxDepth, 1)][Moves.MAX_MOVES];
+    }
+
+    public long perft(Color color, int depth) {
+        if (depth < 0 || depth > moveBuffers.length) {
+            throw new IllegalArgumentException("Depth must be between 0 and " + moveBuffers.length + ", not " + depth);
+        }
+        return count(color, depth);
+    }
+
+    private long count(Color color, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+
+        int[] moves = moveBuffers[depth - 1];
+        int count = board.generateLegalMoves(color, moves);
+        if (depth == 1) {
+            // Bulk counting: the leaves are exactly the legal moves, so there is no need to play them
+            return count;
+        }
+
+        long nodes = 0;
+        for (int idx = 0; idx < count; idx++) {
+            board.makeMove(moves[idx]);
+            nodes += count(color.inverse(), depth - 1);
+            board.unmakeMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * Returns the leaf count below each root move, keyed by packed move in generation order. Root moves are shared
+     * out across the given pool, each task searching its own copy of the board.
+     */
+    public static Map<Integer, Long> divide(Board board, Color color, int depth, ForkJoinPool pool) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Depth to divide must be at least 1, not " + depth);
+        }
+        int[] rootMoves = new int[Moves.MAX_MOVES];
+        int count = board.generateLegalMoves(color, rootMoves);
+
+        List<ForkJoinTask<Long>> tasks = new ArrayList<>();
+        for (int idx = 0; idx < count; idx++) {
+            tasks.add(pool.submit(new RootMoveTask(board.copy(), color, rootMoves[idx], depth)));
+        }
+
+        Map<Integer, Long> results = new LinkedHashMap<>();
+        for (int idx = 0; idx < count; idx++) {
+            results.put(rootMoves[idx], tasks.get(idx).join());
+        }
+        return results;
+    }
+
+    public static long perft(Board board, Color color, int depth, ForkJoinPool pool) {
+        if (depth <= 1) {
+            return new Perft(board, depth).perft(color, depth);
+        }
+        return divide(board, color, depth, pool).values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    private static class RootMoveTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final Board board;
+        private final Color color;
+        private final int move;
+        private final int depth;
+
+        RootMoveTask(Board board, Color color, int move, int depth) {
+            this.board = board;
+            this.color = color;
+            this.move = move;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            board.makeMove(move);
+            return new Perft(board, depth - 1).perft(color.inverse(), depth - 1);
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: Perft <depth> [--divide] [--threads N] [--black] [--fen <fen> | --pieces Ke1 Qd1 ke8 ...]");
+            System.exit(1);
+        }
+
+        int depth = Integer.parseInt(args[0]);
+        if (depth < 0) {
+            throw new IllegalArgumentException("Depth must not be negative, not " + depth);
+        }
+        boolean divide = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        Color color = Color.WHITE;
+        Board board = Board.standardSetup();
+        for (int idx = 1; idx < args.length; idx++) {
+            switch (args[idx]) {
+                case "--divide":
+                    divide = true;
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++idx]);
+                    break;
+                case "--black":
+                    color = Color.BLACK;
+                    break;
+                case "--fen":
+                    board = new Board();
+                    color = Fen.parseInto(args[++idx], board);
+                    break;
+                case "--pieces":
+                    board = new Board();
+                    while (idx + 1 < args.length && !args[idx + 1].startsWith("--")) {
+                        String placement = args[++idx];
+                        board.put(CoordConverter.convert(placement.substring(1)), Fen.toPiece(placement.charAt(0)));
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[idx]);
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        long nodes;
+        if (divide && depth > 0) {
+            Map<Integer, Long> results = divide(board, color, depth, pool);
+            for (Map.Entry<Integer, Long> entry : results.entrySet()) {
+                System.out.println(CoordConverter.convert(Moves.from(entry.getKey())) +
+                                   CoordConverter.convert(Moves.to(entry.getKey())) + ": " + entry.getValue());
+            }
+            nodes = results.values().stream().mapToLong(Long::longValue).sum();
+            System.out.println();
+        } else {
+            nodes = perft(board, color, depth, pool);
+        }
+        long elapsedNanos = Math.max(System.nanoTime() - start, 1);
+        pool.shutdown();
+
+        System.out.println("Depth:   " + depth);
+        System.out.println("Nodes:   " + nodes);
+        System.out.printf("Time:    %.3fs%n", elapsedNanos / 1e9);
+        System.out.printf("Nodes/s: %.0f%n", nodes * 1e9 / elapsedNanos);
+    }
+}
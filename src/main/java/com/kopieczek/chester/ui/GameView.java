@@ -2,7 +2,9 @@ package com.kopieczek.chester.ui;
 
 import com.kopieczek.chester.ai.Ai;
 import com.kopieczek.chester.ai.Move;
-import com.kopieczek.chester.ai.simpleminmax.BasicMinMax;
+import com.kopieczek.chester.ai.alphabeta.AlphaBeta;
+import com.kopieczek.chester.ai.alphabeta.LazySmp;
+import com.kopieczek.chester.ai.alphabeta.TranspositionTable;
 import com.kopieczek.chester.core.Game;
 import com.kopieczek.chester.core.GameState;
 import com.kopieczek.chester.core.Piece;
@@ -26,10 +28,12 @@ public class GameView extends JPanel {
     private static final Map<Piece, BufferedImage> PIECES = ImageLoader.loadImageMap();
     private static final int TILE_SIZE = PIECES.get(Piece.WHITE_PAWN).getHeight();
     private static final int EDGE_SIZE = TILE_SIZE * 8;
+    private static final long AI_MOVE_MILLIS = 1000;
+    private static final int AI_HASH_MEGABYTES = 16;
 
     private Game game;
     private Integer selectedTile = null;
-    private Ai enemy = new BasicMinMax();
+    private Ai enemy = createEnemy();
 
     public GameView(Game game) {
         super();
@@ -150,7 +154,8 @@ public class GameView extends JPanel {
             game.move(selectedTile, target);
             selectedTile = null;
             paintImmediately(0, 0, EDGE_SIZE, EDGE_SIZE);
-            Move aiMove = enemy.getMove(game.getBoard(), com.kopieczek.chester.core.Color.BLACK);
+            // Search on a copy so that the board being painted is never seen mid-search
+            Move aiMove = enemy.getMove(game.getBoard().copy(), com.kopieczek.chester.core.Color.BLACK);
             game.move(aiMove.from, aiMove.to);
         }
 
@@ -158,6 +163,13 @@ public class GameView extends JPanel {
         repaint();
     }
 
+    private static Ai createEnemy() {
+        int threads = Runtime.getRuntime().availableProcessors();
+        LazySmp ai = new LazySmp(AlphaBeta.MAX_PLY - 1, threads, new TranspositionTable(AI_HASH_MEGABYTES));
+        ai.setTimeLimit(AI_MOVE_MILLIS);
+        return ai;
+    }
+
     private static int getPixelXForCell(int cell) {
         int file = cell % 8;
         return file * TILE_SIZE;
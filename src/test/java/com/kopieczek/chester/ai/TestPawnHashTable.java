@@ -0,0 +1,52 @@
+package com.kopieczek.chester.ai;
+
+import com.kopieczek.chester.core.Board;
+import com.kopieczek.chester.core.Color;
+import com.kopieczek.chester.core.Fen;
+import org.junit.Test;
+
+import static com.kopieczek.chester.core.CoordConverter.convert;
+import static org.junit.Assert.assertEquals;
+
+public class TestPawnHashTable {
+    @Test
+    public void test_size_rounds_down_to_power_of_two() {
+        assertEquals(1024, new PawnHashTable(1500).getEntryCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_empty_table_is_rejected() {
+        new PawnHashTable(0);
+    }
+
+    @Test
+    public void test_lookup_matches_direct_evaluation() {
+        Board board = Fen.parse("4k3/8/8/4p3/1P6/8/3P4/4K3 w - - 0 1").getBoard();
+        PawnHashTable table = new PawnHashTable(64);
+        long white = board.getPawns(Color.WHITE);
+        long black = board.getPawns(Color.BLACK);
+
+        int slot = table.lookup(board);
+        assertEquals(PawnStructure.evaluate(white, black), table.getScore(slot));
+        assertEquals(PawnStructure.findPassedPawns(white, black), table.getPassedPawns(slot));
+    }
+
+    @Test
+    public void test_piece_moves_hit_and_pawn_moves_miss() {
+        Board board = Board.standardSetup();
+        PawnHashTable table = new PawnHashTable(1024);
+        table.lookup(board);
+        board.move(convert("g1"), convert("f3"));
+        table.lookup(board);
+        board.move(convert("e2"), convert("e4"));
+        table.lookup(board);
+
+        assertEquals(3, table.getProbeCount());
+        assertEquals(1, table.getHitCount());
+        assertEquals(1 / 3.0, table.getHitRate(), 1e-9);
+
+        table.clear();
+        assertEquals(0, table.getProbeCount());
+        assertEquals(0, table.getHitRate(), 0);
+    }
+}
@@ -0,0 +1,51 @@
+package com.kopieczek.chester.ai;
+
+import com.kopieczek.chester.core.Board;
+import com.kopieczek.chester.core.Color;
+import com.kopieczek.chester.core.Fen;
+import org.junit.Test;
+
+import static com.kopieczek.chester.core.Bitboards.bit;
+import static com.kopieczek.chester.core.CoordConverter.convert;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestPawnStructure {
+    @Test
+    public void test_symmetric_structure_scores_zero() {
+        Board board = Board.standardSetup();
+        assertEquals(0, PawnStructure.evaluate(board.getPawns(Color.WHITE), board.getPawns(Color.BLACK)));
+        assertEquals(0, PawnStructure.findPassedPawns(board.getPawns(Color.WHITE), board.getPawns(Color.BLACK)));
+    }
+
+    @Test
+    public void test_doubled_and_isolated_pawns_are_penalised() {
+        // Black's pawns stop any of white's from being passed
+        Board healthy = Fen.parse("4k3/1pppp3/8/8/8/8/2PPP3/4K3 w - - 0 1").getBoard();
+        Board doubled = Fen.parse("4k3/1pppp3/8/8/8/3P4/2PP4/4K3 w - - 0 1").getBoard();
+        Board isolated = Fen.parse("4k3/1pppp3/8/8/8/8/P1P1P3/4K3 w - - 0 1").getBoard();
+        int healthyScore = score(healthy);
+        assertTrue(score(doubled) < healthyScore);
+        assertTrue(score(isolated) < healthyScore);
+    }
+
+    @Test
+    public void test_passed_pawns_are_found() {
+        // The b-pawn is passed, but the d-pawn and the black pawn on e5 each stand in the other's way
+        Board board = Fen.parse("4k3/8/8/4p3/1P6/8/3P4/4K3 w - - 0 1").getBoard();
+        long passed = PawnStructure.findPassedPawns(board.getPawns(Color.WHITE), board.getPawns(Color.BLACK));
+        assertEquals(bit(convert("b4")), passed);
+    }
+
+    @Test
+    public void test_advanced_passed_pawn_is_worth_more() {
+        assertTrue(PawnStructure.getPassedBonus(Color.WHITE, convert("b6")) >
+                   PawnStructure.getPassedBonus(Color.WHITE, convert("b3")));
+        assertEquals(PawnStructure.getPassedBonus(Color.WHITE, convert("c6")),
+                     PawnStructure.getPassedBonus(Color.BLACK, convert("c3")));
+    }
+
+    private static int score(Board board) {
+        return PawnStructure.evaluate(board.getPawns(Color.WHITE), board.getPawns(Color.BLACK));
+    }
+}
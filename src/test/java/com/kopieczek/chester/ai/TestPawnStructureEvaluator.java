@@ -0,0 +1,63 @@
+package com.kopieczek.chester.ai;
+
+import com.kopieczek.chester.core.Board;
+import com.kopieczek.chester.core.Color;
+import com.kopieczek.chester.core.Fen;
+import org.junit.Test;
+
+import static com.kopieczek.chester.core.CoordConverter.convert;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestPawnStructureEvaluator {
+    private final PawnStructureEvaluator evaluator = new PawnStructureEvaluator();
+
+    @Test
+    public void test_standard_setup_is_level() {
+        Board board = Board.standardSetup();
+        assertEquals(0, evaluator.evaluate(board, Color.WHITE));
+        assertEquals(0, evaluator.evaluate(board, Color.BLACK));
+    }
+
+    @Test
+    public void test_score_is_symmetric() {
+        Board white = Fen.parse("4k3/8/8/3P4/8/8/6P1/4K3 w - - 0 1").getBoard();
+        Board black = Fen.parse("4k3/6p1/8/8/3p4/8/8/4K3 w - - 0 1").getBoard();
+        int whiteScore = evaluator.evaluate(white, Color.WHITE);
+        assertTrue(whiteScore > 0);
+        assertEquals(-whiteScore, evaluator.evaluate(white, Color.BLACK));
+        assertEquals(whiteScore, evaluator.evaluate(black, Color.BLACK));
+    }
+
+    @Test
+    public void test_blocked_passed_pawn_scores_lower() {
+        // The same pieces either way, so only the bonus for a free path differs
+        Board free = Fen.parse("4k3/8/8/3P4/8/8/3K4/8 w - - 0 1").getBoard();
+        Board blocked = Fen.parse("4k3/8/3K4/3P4/8/8/8/8 w - - 0 1").getBoard();
+        assertTrue(getPawnTerms(blocked) < getPawnTerms(free));
+        assertEquals(-getPawnTerms(blocked), getPawnTerms(blocked, Color.BLACK));
+    }
+
+    @Test
+    public void test_repeated_pawn_structure_hits_table() {
+        Board board = Board.standardSetup();
+        PawnHashTable table = evaluator.getPawnHashTable();
+        evaluator.evaluate(board, Color.WHITE);
+        assertEquals(0, table.getHitCount());
+
+        board.move(convert("g1"), convert("f3"));
+        evaluator.evaluate(board, Color.BLACK);
+        board.move(convert("b8"), convert("c6"));
+        evaluator.evaluate(board, Color.WHITE);
+        assertEquals(3, table.getProbeCount());
+        assertEquals(2, table.getHitCount());
+    }
+
+    private int getPawnTerms(Board board) {
+        return getPawnTerms(board, Color.WHITE);
+    }
+
+    private int getPawnTerms(Board board, Color color) {
+        return evaluator.evaluate(board, color) - new PieceSquareEvaluator().evaluate(board, color);
+    }
+}
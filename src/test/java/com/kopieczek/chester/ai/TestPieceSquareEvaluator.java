@@ -0,0 +1,35 @@
+package com.kopieczek.chester.ai;
+
+import com.kopieczek.chester.core.Board;
+import com.kopieczek.chester.core.Color;
+import com.kopieczek.chester.core.Fen;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestPieceSquareEvaluator {
+    private final Evaluator evaluator = new PieceSquareEvaluator();
+
+    @Test
+    public void test_standard_setup_is_level() {
+        Board board = Board.standardSetup();
+        assertEquals(0, evaluator.evaluate(board, Color.WHITE));
+        assertEquals(0, evaluator.evaluate(board, Color.BLACK));
+    }
+
+    @Test
+    public void test_centralised_knight_scores_higher() {
+        Board centre = Fen.parse("4k3/8/8/8/3N4/8/8/4K3 w - - 0 1").getBoard();
+        Board rim = Fen.parse("4k3/8/8/8/N7/8/8/4K3 w - - 0 1").getBoard();
+        assertTrue(evaluator.evaluate(centre, Color.WHITE) > evaluator.evaluate(rim, Color.WHITE));
+        assertEquals(-evaluator.evaluate(centre, Color.WHITE), evaluator.evaluate(centre, Color.BLACK));
+    }
+
+    @Test
+    public void test_material_outweighs_placement() {
+        // The extra pawn stands on one of its worst cells, but still leaves white ahead
+        Board board = Fen.parse("4k3/8/8/8/8/8/3P4/n3K2N w - - 0 1").getBoard();
+        assertTrue(evaluator.evaluate(board, Color.WHITE) > 0);
+    }
+}
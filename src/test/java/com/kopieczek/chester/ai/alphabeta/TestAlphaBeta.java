@@ -0,0 +1,295 @@
+package com.kopieczek.chester.ai.alphabeta;
+
+import com.kopieczek.chester.ai.MaterialEvaluator;
+import com.kopieczek.chester.ai.Move;
+import com.kopieczek.chester.ai.PieceSquareEvaluator;
+import com.kopieczek.chester.ai.simpleminmax.BasicMinMax;
+import com.kopieczek.chester.core.Board;
+import com.kopieczek.chester.core.Color;
+import com.kopieczek.chester.core.Fen;
+import com.kopieczek.chester.core.Game;
+import com.kopieczek.chester.core.Moves;
+import org.junit.Test;
+
+import java.util.List;
+
+import static com.kopieczek.chester.core.CoordConverter.convert;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestAlphaBeta {
+    private static final String[] POSITIONS = {
+            Fen.STANDARD_SETUP,
+            "r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w - - 0 1",
+            "r2q1rk1/ppp2ppp/2np1n2/2b1p1B1/2B1P1b1/2NP1N2/PPP2PPP/R2Q1RK1 w - - 0 1",
+            "4k3/8/3p4/2n1r3/8/3N4/1B6/4K3 b - - 0 1",
+    };
+
+    @Test
+    public void test_same_move_as_basic_minmax_with_fewer_nodes() {
+        for (String fen : POSITIONS) {
+            for (int depth = 0; depth <= 2; depth++) {
+                Game game = Fen.parse(fen);
+                BasicMinMax minMax = new BasicMinMax(depth);
+                AlphaBeta alphaBeta = new AlphaBeta(depth + 1);
+                alphaBeta.setMoveOrdering(false);
+                alphaBeta.setQuiescence(false);
+                alphaBeta.setNullMovePruning(false);
+                alphaBeta.setLateMoveReductions(false);
+
+                Move expected = minMax.getMove(game.getBoard(), game.getActivePlayer());
+                Move actual = alphaBeta.getMove(game.getBoard(), game.getActivePlayer());
+
+                String message = fen + " at depth " + depth;
+                assertEquals(message, expected.from, actual.from);
+                assertEquals(message, expected.to, actual.to);
+                if (depth > 0) {
+                    assertTrue(message, alphaBeta.getNodeCount() < minMax.getNodeCount());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test_move_ordering_keeps_score_with_fewer_nodes() {
+        for (String fen : POSITIONS) {
+            Game game = Fen.parse(fen);
+            AlphaBeta unordered = new AlphaBeta(4);
+            unordered.setMoveOrdering(false);
+            unordered.setNullMovePruning(false);
+            AlphaBeta ordered = new AlphaBeta(4);
+            ordered.setNullMovePruning(false);
+            ordered.setLateMoveReductions(false);
+
+            unordered.getMove(game.getBoard(), game.getActivePlayer());
+            ordered.getMove(game.getBoard(), game.getActivePlayer());
+            assertEquals(fen, unordered.getScore(), ordered.getScore());
+            assertTrue(fen, ordered.getNodeCount() < unordered.getNodeCount());
+        }
+    }
+
+    @Test
+    public void test_pvs_and_aspiration_keep_score() {
+        for (String fen : POSITIONS) {
+            Game game = Fen.parse(fen);
+            AlphaBeta plain = new AlphaBeta(5);
+            plain.setPrincipalVariationSearch(false);
+            plain.setAspirationWindow(0);
+            plain.setNullMovePruning(false);
+            plain.setLateMoveReductions(false);
+            AlphaBeta pvs = new AlphaBeta(5);
+            pvs.setNullMovePruning(false);
+            pvs.setLateMoveReductions(false);
+
+            plain.getMove(game.getBoard(), game.getActivePlayer());
+            pvs.getMove(game.getBoard(), game.getActivePlayer());
+            assertEquals(fen, plain.getScore(), pvs.getScore());
+        }
+    }
+
+    @Test
+    public void test_pruning_searches_fewer_nodes() {
+        for (String fen : POSITIONS) {
+            Game game = Fen.parse(fen);
+            AlphaBeta unpruned = new AlphaBeta(6);
+            unpruned.setNullMovePruning(false);
+            unpruned.setLateMoveReductions(false);
+            AlphaBeta pruned = new AlphaBeta(6);
+
+            unpruned.getMove(game.getBoard(), game.getActivePlayer());
+            pruned.getMove(game.getBoard(), game.getActivePlayer());
+            assertTrue(fen, pruned.getNodeCount() < unpruned.getNodeCount());
+            assertEquals(fen, Fen.parse(fen).getBoard(), game.getBoard());
+        }
+    }
+
+    @Test
+    public void test_null_move_not_tried_in_pawn_endgame() {
+        // With only kings and pawns the side to move is often in zugzwang, so a null move proves nothing; here letting
+        // either side pass would hide that white wins a pawn
+        Game game = Fen.parse("8/8/2p5/8/2P5/6k1/3K4/8 w - - 0 1");
+        AlphaBeta pruned = new AlphaBeta(8);
+        pruned.setLateMoveReductions(false);
+        AlphaBeta unpruned = new AlphaBeta(8);
+        unpruned.setNullMovePruning(false);
+        unpruned.setLateMoveReductions(false);
+
+        pruned.getMove(game.getBoard(), game.getActivePlayer());
+        unpruned.getMove(game.getBoard(), game.getActivePlayer());
+        assertEquals(1, unpruned.getScore());
+        assertEquals(unpruned.getScore(), pruned.getScore());
+    }
+
+    @Test
+    public void test_principal_variation_is_a_legal_line_from_chosen_move() {
+        for (String fen : POSITIONS) {
+            Game game = Fen.parse(fen);
+            AlphaBeta alphaBeta = new AlphaBeta(5);
+            Move move = alphaBeta.getMove(game.getBoard(), game.getActivePlayer());
+
+            List<Move> line = alphaBeta.getPrincipalVariation();
+            assertEquals(fen, 5, line.size());
+            assertEquals(fen, move.from, line.get(0).from);
+            assertEquals(fen, move.to, line.get(0).to);
+
+            Board board = game.getBoard();
+            Color color = game.getActivePlayer();
+            for (Move step : line) {
+                int packed = Moves.pack(step.from, step.to);
+                assertTrue(fen, board.isLegalMove(color, packed));
+                board.makeMove(packed);
+                color = color.inverse();
+            }
+        }
+    }
+
+    @Test
+    public void test_principal_variation_ends_in_mate() {
+        Game game = Fen.parse("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        AlphaBeta alphaBeta = new AlphaBeta(4);
+        alphaBeta.getMove(game.getBoard(), game.getActivePlayer());
+
+        List<Move> line = alphaBeta.getPrincipalVariation();
+        assertEquals(1, line.size());
+        assertEquals(convert("a8"), line.get(0).to);
+    }
+
+    @Test
+    public void test_search_leaves_board_unchanged() {
+        Board board = Board.standardSetup();
+        new AlphaBeta(4).getMove(board, Color.WHITE);
+        assertEquals(Board.standardSetup(), board);
+    }
+
+    @Test
+    public void test_unlimited_search_completes_every_iteration() {
+        AlphaBeta alphaBeta = new AlphaBeta(4);
+        alphaBeta.getMove(Board.standardSetup(), Color.WHITE);
+        assertEquals(4, alphaBeta.getCompletedPlies());
+    }
+
+    @Test
+    public void test_node_limit_stops_search_early() {
+        Board board = Board.standardSetup();
+        AlphaBeta alphaBeta = new AlphaBeta(AlphaBeta.MAX_PLY - 1);
+        alphaBeta.setNodeLimit(50000);
+        Move move = alphaBeta.getMove(board, Color.WHITE);
+
+        assertNotNull(move);
+        assertTrue(alphaBeta.getCompletedPlies() >= 1);
+        assertTrue(alphaBeta.getCompletedPlies() < AlphaBeta.MAX_PLY - 1);
+        assertTrue(alphaBeta.getNodeCount() < 52000);
+        assertEquals(Board.standardSetup(), board);
+    }
+
+    @Test
+    public void test_time_limit_stops_search_early() {
+        AlphaBeta alphaBeta = new AlphaBeta(AlphaBeta.MAX_PLY - 1);
+        alphaBeta.setTimeLimit(100);
+        long start = System.currentTimeMillis();
+        Move move = alphaBeta.getMove(Board.standardSetup(), Color.WHITE);
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertNotNull(move);
+        assertTrue(alphaBeta.getCompletedPlies() >= 1);
+        assertTrue("Search took " + elapsed + "ms", elapsed < 1000);
+    }
+
+    @Test
+    public void test_first_iteration_completes_even_with_tiny_budget() {
+        AlphaBeta alphaBeta = new AlphaBeta(AlphaBeta.MAX_PLY - 1);
+        alphaBeta.setNodeLimit(1);
+        assertNotNull(alphaBeta.getMove(Board.standardSetup(), Color.WHITE));
+        assertEquals(1, alphaBeta.getCompletedPlies());
+    }
+
+    @Test
+    public void test_transposition_table_reduces_node_count() {
+        Game game = Fen.parse(POSITIONS[2]);
+        AlphaBeta plain = new AlphaBeta(5);
+        AlphaBeta cached = new AlphaBeta(5);
+        TranspositionTable table = new TranspositionTable(4);
+        cached.setTranspositionTable(table);
+
+        plain.getMove(game.getBoard(), game.getActivePlayer());
+        cached.getMove(game.getBoard(), game.getActivePlayer());
+        assertTrue(cached.getNodeCount() < plain.getNodeCount());
+        assertTrue(table.getHitCount() > 0);
+        assertEquals(Fen.parse(POSITIONS[2]).getBoard(), game.getBoard());
+    }
+
+    @Test
+    public void test_finds_mate_in_one_with_transposition_table() {
+        Game game = Fen.parse("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        AlphaBeta alphaBeta = new AlphaBeta(5);
+        alphaBeta.setTranspositionTable(new TranspositionTable(1));
+        Move move = alphaBeta.getMove(game.getBoard(), game.getActivePlayer());
+        assertEquals(convert("a8"), move.to);
+        assertEquals(AlphaBeta.MATE - 1, alphaBeta.getScore());
+    }
+
+    @Test
+    public void test_quiescence_sees_recapture_beyond_horizon() {
+        Game game = Fen.parse("4k3/8/4p3/3p4/8/8/8/3QK3 w - - 0 1");
+        AlphaBeta greedy = new AlphaBeta(1);
+        greedy.setQuiescence(false);
+        Move greedyMove = greedy.getMove(game.getBoard(), game.getActivePlayer());
+        assertEquals(convert("d5"), greedyMove.to);
+
+        AlphaBeta quiescent = new AlphaBeta(1);
+        Move quiescentMove = quiescent.getMove(game.getBoard(), game.getActivePlayer());
+        assertTrue(quiescentMove.to != convert("d5"));
+        assertEquals(7, quiescent.getScore());
+        assertEquals(Fen.parse("4k3/8/4p3/3p4/8/8/8/3QK3 w - - 0 1").getBoard(), game.getBoard());
+    }
+
+    @Test
+    public void test_quiescence_searches_evasions_when_in_check() {
+        // Rxa8 is only a rook for a rook, unless the search notices that it is also mate
+        Game game = Fen.parse("r5k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        AlphaBeta alphaBeta = new AlphaBeta(1);
+        Move move = alphaBeta.getMove(game.getBoard(), game.getActivePlayer());
+        assertEquals(convert("a8"), move.to);
+        assertEquals(AlphaBeta.MATE - 1, alphaBeta.getScore());
+    }
+
+    @Test
+    public void test_takes_hanging_queen() {
+        Game game = Fen.parse("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1");
+        Move move = new AlphaBeta(3).getMove(game.getBoard(), game.getActivePlayer());
+        assertEquals(convert("d2"), move.from);
+        assertEquals(convert("d5"), move.to);
+    }
+
+    @Test
+    public void test_finds_mate_in_one() {
+        Game game = Fen.parse("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        AlphaBeta alphaBeta = new AlphaBeta(3);
+        Move move = alphaBeta.getMove(game.getBoard(), game.getActivePlayer());
+        assertEquals(convert("a1"), move.from);
+        assertEquals(convert("a8"), move.to);
+        assertEquals(AlphaBeta.MATE - 1, alphaBeta.getScore());
+    }
+
+    @Test
+    public void test_no_move_when_checkmated() {
+        Game game = Fen.parse("R5k1/5ppp/8/8/8/8/8/6K1 b - - 0 1");
+        AlphaBeta alphaBeta = new AlphaBeta(2);
+        assertNull(alphaBeta.getMove(game.getBoard(), game.getActivePlayer()));
+        assertEquals(-AlphaBeta.MATE, alphaBeta.getScore());
+    }
+
+    @Test
+    public void test_stalemate_is_scored_in_evaluator_units() {
+        Game game = Fen.parse("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1");
+        AlphaBeta material = new AlphaBeta(2, new MaterialEvaluator());
+        AlphaBeta centipawns = new AlphaBeta(2, new PieceSquareEvaluator());
+        assertNull(material.getMove(game.getBoard(), game.getActivePlayer()));
+        assertNull(centipawns.getMove(game.getBoard(), game.getActivePlayer()));
+        assertEquals(new MaterialEvaluator().getStalemateScore(), material.getScore());
+        assertEquals(new PieceSquareEvaluator().getStalemateScore(), centipawns.getScore());
+        assertEquals(100 * material.getScore(), centipawns.getScore());
+    }
+}
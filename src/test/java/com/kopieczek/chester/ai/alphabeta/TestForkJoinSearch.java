@@ -0,0 +1,128 @@
+package com.kopieczek.chester.ai.alphabeta;
+
+import com.kopieczek.chester.ai.Move;
+import com.kopieczek.chester.core.Board;
+import com.kopieczek.chester.core.Color;
+import com.kopieczek.chester.core.Fen;
+import com.kopieczek.chester.core.Game;
+import com.kopieczek.chester.core.Moves;
+import com.kopieczek.chester.core.Zobrist;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static com.kopieczek.chester.core.CoordConverter.convert;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestForkJoinSearch {
+    private static final String[] POSITIONS = {
+            Fen.STANDARD_SETUP,
+            "r2q1rk1/ppp2ppp/2np1n2/2b1p1B1/2B1P1b1/2NP1N2/PPP2PPP/R2Q1RK1 w - - 0 1",
+            "2r3k1/pp3pp1/4p2p/3n4/3P4/P4N2/1P3PPP/2R3K1 w - - 0 1",
+            "4k3/8/3p4/2n1r3/8/3N4/1B6/4K3 b - - 0 1",
+    };
+
+    @Test
+    public void test_same_score_as_alpha_beta() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for (String fen : POSITIONS) {
+            Game game = Fen.parse(fen);
+            AlphaBeta alphaBeta = new AlphaBeta(4);
+            alphaBeta.setNullMovePruning(false);
+            alphaBeta.setLateMoveReductions(false);
+            ForkJoinSearch forkJoin = new ForkJoinSearch(4, pool, null);
+            forkJoin.setSplitDepth(2);
+            forkJoin.setNullMovePruning(false);
+            forkJoin.setLateMoveReductions(false);
+
+            alphaBeta.getMove(game.getBoard(), game.getActivePlayer());
+            forkJoin.getMove(game.getBoard(), game.getActivePlayer());
+            assertEquals(fen, alphaBeta.getScore(), forkJoin.getScore());
+            assertEquals(fen, 4, forkJoin.getCompletedPlies());
+            assertEquals(fen, Fen.parse(fen).getBoard(), game.getBoard());
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void test_stored_bounds_hold_with_transposition_table() {
+        // Each root move's stored result must bound what a plain search to the same depth finds there
+        ForkJoinPool pool = new ForkJoinPool(4);
+        int[] moves = new int[Moves.MAX_MOVES];
+        for (String fen : POSITIONS) {
+            Game game = Fen.parse(fen);
+            Board board = game.getBoard();
+            Color color = game.getActivePlayer();
+            TranspositionTable table = new TranspositionTable(4);
+            ForkJoinSearch forkJoin = new ForkJoinSearch(5, pool, table);
+            forkJoin.setSplitDepth(2);
+            forkJoin.setNullMovePruning(false);
+            forkJoin.setLateMoveReductions(false);
+            forkJoin.getMove(board, color);
+
+            int count = board.generateLegalMoves(color, moves);
+            for (int idx = 0; idx < count; idx++) {
+                board.makeMove(moves[idx]);
+                long entry = table.probe(board.getZobristKey() ^ Zobrist.sideToMoveKey(color.inverse()));
+                if (entry != TranspositionTable.MISS && TranspositionTable.getDepth(entry) > 0) {
+                    AlphaBeta alphaBeta = new AlphaBeta(TranspositionTable.getDepth(entry));
+                    alphaBeta.setNullMovePruning(false);
+                    alphaBeta.setLateMoveReductions(false);
+                    alphaBeta.getMove(board.copy(), color.inverse());
+
+                    int actual = alphaBeta.getScore();
+                    int stored = TranspositionTable.getScore(entry);
+                    switch (TranspositionTable.getBound(entry)) {
+                        case TranspositionTable.EXACT:
+                            assertEquals(fen, stored, actual);
+                            break;
+                        case TranspositionTable.LOWER_BOUND:
+                            assertTrue(fen, actual >= stored);
+                            break;
+                        default:
+                            assertTrue(fen, actual <= stored);
+                            break;
+                    }
+                }
+                board.unmakeMove();
+            }
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void test_shared_transposition_table() {
+        ForkJoinPool pool = new ForkJoinPool(3);
+        TranspositionTable table = new TranspositionTable(4);
+        ForkJoinSearch forkJoin = new ForkJoinSearch(5, pool, table);
+        Board board = Board.standardSetup();
+
+        forkJoin.getMove(board, Color.WHITE);
+        assertEquals(5, forkJoin.getCompletedPlies());
+        assertEquals(Board.standardSetup(), board);
+        pool.shutdown();
+    }
+
+    @Test
+    public void test_finds_mate_in_one() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        Game game = Fen.parse("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        ForkJoinSearch forkJoin = new ForkJoinSearch(4, pool, new TranspositionTable(1));
+        Move move = forkJoin.getMove(game.getBoard(), game.getActivePlayer());
+        assertEquals(convert("a8"), move.to);
+        assertEquals(AlphaBeta.MATE - 1, forkJoin.getScore());
+        pool.shutdown();
+    }
+
+    @Test
+    public void test_no_move_when_checkmated() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        Game game = Fen.parse("R5k1/5ppp/8/8/8/8/8/6K1 b - - 0 1");
+        ForkJoinSearch forkJoin = new ForkJoinSearch(3, pool, null);
+        assertNull(forkJoin.getMove(game.getBoard(), game.getActivePlayer()));
+        assertEquals(-AlphaBeta.MATE, forkJoin.getScore());
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,73 @@
+package com.kopieczek.chester.ai.alphabeta;
+
+import com.kopieczek.chester.ai.Move;
+import com.kopieczek.chester.core.Board;
+import com.kopieczek.chester.core.Color;
+import com.kopieczek.chester.core.Fen;
+import com.kopieczek.chester.core.Game;
+import org.junit.Test;
+
+import static com.kopieczek.chester.core.CoordConverter.convert;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestLazySmp {
+    @Test
+    public void test_single_thread_matches_alpha_beta() {
+        Game game = Fen.parse("r2q1rk1/ppp2ppp/2np1n2/2b1p1B1/2B1P1b1/2NP1N2/PPP2PPP/R2Q1RK1 w - - 0 1");
+        AlphaBeta alphaBeta = new AlphaBeta(4);
+        alphaBeta.setTranspositionTable(new TranspositionTable(4));
+        LazySmp lazySmp = new LazySmp(4, 1, new TranspositionTable(4));
+
+        Move expected = alphaBeta.getMove(game.getBoard(), game.getActivePlayer());
+        Move actual = lazySmp.getMove(game.getBoard(), game.getActivePlayer());
+        assertEquals(expected.from, actual.from);
+        assertEquals(expected.to, actual.to);
+        assertEquals(alphaBeta.getScore(), lazySmp.getScore());
+        assertEquals(alphaBeta.getNodeCount(), lazySmp.getNodeCount());
+    }
+
+    @Test
+    public void test_multiple_threads_reach_full_depth() {
+        Board board = Board.standardSetup();
+        LazySmp lazySmp = new LazySmp(5, 4, new TranspositionTable(4));
+        assertNotNull(lazySmp.getMove(board, Color.WHITE));
+        assertEquals(5, lazySmp.getCompletedPlies());
+        assertEquals(Board.standardSetup(), board);
+    }
+
+    @Test
+    public void test_multiple_threads_find_mate() {
+        Game game = Fen.parse("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        LazySmp lazySmp = new LazySmp(5, 3, new TranspositionTable(1));
+        Move move = lazySmp.getMove(game.getBoard(), game.getActivePlayer());
+        assertEquals(convert("a8"), move.to);
+        assertEquals(AlphaBeta.MATE - 1, lazySmp.getScore());
+    }
+
+    @Test
+    public void test_time_limit_stops_all_threads() {
+        LazySmp lazySmp = new LazySmp(AlphaBeta.MAX_PLY - 1, 4, new TranspositionTable(4));
+        lazySmp.setTimeLimit(100);
+        long start = System.currentTimeMillis();
+        assertNotNull(lazySmp.getMove(Board.standardSetup(), Color.WHITE));
+        long elapsed = System.currentTimeMillis() - start;
+        assertTrue("Search took " + elapsed + "ms", elapsed < 1000);
+    }
+
+    @Test
+    public void test_helper_threads_are_reused_between_moves() {
+        LazySmp lazySmp = new LazySmp(3, 4, new TranspositionTable(1));
+        Game game = Fen.parse("r2q1rk1/ppp2ppp/2np1n2/2b1p1B1/2B1P1b1/2NP1N2/PPP2PPP/R2Q1RK1 w - - 0 1");
+        try {
+            assertNotNull(lazySmp.getMove(Board.standardSetup(), Color.WHITE));
+            int threads = Thread.activeCount();
+            assertNotNull(lazySmp.getMove(game.getBoard(), game.getActivePlayer()));
+            assertNotNull(lazySmp.getMove(Board.standardSetup(), Color.WHITE));
+            assertEquals(threads, Thread.activeCount());
+        } finally {
+            lazySmp.shutdown();
+        }
+    }
+}
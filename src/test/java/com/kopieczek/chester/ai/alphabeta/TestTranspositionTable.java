@@ -0,0 +1,104 @@
+package com.kopieczek.chester.ai.alphabeta;
+
+import com.kopieczek.chester.core.Moves;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestTranspositionTable {
+    @Test
+    public void test_size_is_given_in_megabytes() {
+        assertEquals(65536, new TranspositionTable(1).getEntryCount());
+        assertEquals(65536 * 16, new TranspositionTable(16).getEntryCount());
+        assertEquals(65536 * 16, new TranspositionTable(20).getEntryCount());
+    }
+
+    @Test
+    public void test_probe_returns_stored_entry() {
+        TranspositionTable table = new TranspositionTable(1);
+        int move = Moves.pack(12, 28);
+        table.store(0x123456789abcdefL, move, 7, TranspositionTable.LOWER_BOUND, -1234);
+
+        long entry = table.probe(0x123456789abcdefL);
+        assertEquals(move, TranspositionTable.getMove(entry));
+        assertEquals(7, TranspositionTable.getDepth(entry));
+        assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.getBound(entry));
+        assertEquals(-1234, TranspositionTable.getScore(entry));
+    }
+
+    @Test
+    public void test_probe_misses_unknown_key() {
+        TranspositionTable table = new TranspositionTable(1);
+        assertEquals(TranspositionTable.MISS, table.probe(42));
+        table.store(42, Moves.NONE, 1, TranspositionTable.EXACT, 0);
+        assertEquals(TranspositionTable.MISS, table.probe(43));
+    }
+
+    @Test
+    public void test_keys_sharing_a_bucket_are_both_kept() {
+        TranspositionTable table = new TranspositionTable(1);
+        long first = 5;
+        long second = 5 + (1L << 40);
+        table.store(first, Moves.pack(1, 2), 6, TranspositionTable.EXACT, 10);
+        table.store(second, Moves.pack(3, 4), 2, TranspositionTable.EXACT, 20);
+
+        assertEquals(10, TranspositionTable.getScore(table.probe(first)));
+        assertEquals(20, TranspositionTable.getScore(table.probe(second)));
+    }
+
+    @Test
+    public void test_deepest_entry_survives_shallower_overwrites() {
+        TranspositionTable table = new TranspositionTable(1);
+        long deep = 5;
+        table.store(deep, Moves.pack(1, 2), 6, TranspositionTable.EXACT, 10);
+        for (long idx = 1; idx <= 3; idx++) {
+            table.store(5 + (idx << 40), Moves.pack(3, 4), 2, TranspositionTable.EXACT, 20);
+        }
+
+        assertEquals(6, TranspositionTable.getDepth(table.probe(deep)));
+        assertEquals(TranspositionTable.MISS, table.probe(5 + (1L << 40)));
+        assertEquals(2, TranspositionTable.getDepth(table.probe(5 + (3L << 40))));
+    }
+
+    @Test
+    public void test_new_search_lets_old_deep_entries_be_replaced() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(5, Moves.pack(1, 2), 6, TranspositionTable.EXACT, 10);
+        table.newSearch();
+        table.store(5 + (1L << 40), Moves.pack(3, 4), 2, TranspositionTable.EXACT, 20);
+        table.store(5 + (2L << 40), Moves.pack(3, 4), 2, TranspositionTable.EXACT, 30);
+
+        assertEquals(TranspositionTable.MISS, table.probe(5));
+    }
+
+    @Test
+    public void test_storing_without_move_keeps_previous_move() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(99, Moves.pack(1, 2), 3, TranspositionTable.EXACT, 10);
+        table.store(99, Moves.NONE, 4, TranspositionTable.UPPER_BOUND, 5);
+
+        long entry = table.probe(99);
+        assertEquals(Moves.pack(1, 2), TranspositionTable.getMove(entry));
+        assertEquals(4, TranspositionTable.getDepth(entry));
+        assertEquals(TranspositionTable.UPPER_BOUND, TranspositionTable.getBound(entry));
+    }
+
+    @Test
+    public void test_hit_and_collision_rates() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(5, Moves.NONE, 1, TranspositionTable.EXACT, 0);
+        table.probe(5);
+        table.probe(5 + (1L << 40));
+        table.probe(6);
+        table.probe(5);
+
+        assertEquals(4, table.getProbeCount());
+        assertEquals(2, table.getHitCount());
+        assertEquals(1, table.getCollisionCount());
+        assertEquals(0.5, table.getHitRate(), 1e-9);
+        assertEquals(0.25, table.getCollisionRate(), 1e-9);
+
+        table.resetStats();
+        assertEquals(0, table.getProbeCount());
+    }
+}
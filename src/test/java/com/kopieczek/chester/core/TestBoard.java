@@ -1408,6 +1408,41 @@ public class TestBoard {
         assertNoMoves(board, "f6");
     }
 
+    @Test
+    public void test_pinned_piece_may_move_along_pin() {
+        Board board = BoardUtils.setupBoard(b -> {
+            BoardUtils.addKings(b, "a1", "h8");
+            b.put("c3", WHITE_BISHOP);
+            b.put("f6", BLACK_BISHOP);
+        });
+
+        assertMoves(board, "f6", "e5", "d4", "c3", "g7");
+    }
+
+    @Test
+    public void test_only_king_may_move_during_double_check() {
+        Board board = BoardUtils.setupBoard(b -> {
+            BoardUtils.addKings(b, "e1", "h8");
+            b.put("e8", BLACK_ROOK);
+            b.put("d3", BLACK_KNIGHT);
+            b.put("c2", WHITE_QUEEN);
+        });
+
+        assertNoMoves(board, "c2");
+        assertMoves(board, "e1", "d1", "f1", "d2");
+    }
+
+    @Test
+    public void test_king_cannot_retreat_along_line_of_check() {
+        Board board = BoardUtils.setupBoard(b -> {
+            BoardUtils.addKings(b, "d4", "h8");
+            b.put("a4", BLACK_ROOK);
+        });
+
+        assertFalse(hasMove(board, "d4", "e4"));
+        assertTrue(hasMove(board, "d4", "e5"));
+    }
+
     @Test
     public void test_moves_are_allowed_with_no_king_on_board() {
         // Obviously not possible during games, but potentially useful to permit for puzzles, etc
@@ -1415,6 +1450,425 @@ public class TestBoard {
         assertFalse(board.getMoves(convert("c5")).isEmpty());
     }
 
+    @Test
+    public void test_generate_legal_moves_in_standard_setup() {
+        int[] moves = new int[Moves.MAX_MOVES];
+        assertEquals(20, Board.standardSetup().generateLegalMoves(Color.WHITE, moves));
+        assertEquals(20, Board.standardSetup().generateLegalMoves(Color.BLACK, moves));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_generate_legal_moves_rejects_short_buffer() {
+        Board.standardSetup().generateLegalMoves(Color.WHITE, new int[19]);
+    }
+
+    @Test
+    public void test_generate_legal_moves_matches_get_moves() {
+        Board board = BoardUtils.setupBoard(b -> {
+            BoardUtils.addKings(b, "e1", "e8");
+            b.put("e2", WHITE_BISHOP);
+            b.put("e5", BLACK_ROOK);
+            b.put("c3", WHITE_KNIGHT);
+            b.put("d4", BLACK_PAWN);
+            b.put("g2", WHITE_PAWN);
+            b.put("b4", BLACK_BISHOP);
+        });
+
+        for (Color color : Color.values()) {
+            Set<Integer> expected = new HashSet<>();
+            for (int cell = 0; cell < 64; cell++) {
+                if (board.get(cell).isPresent() && board.get(cell).get().getColor() == color) {
+                    for (int target : board.getMoves(cell)) {
+                        expected.add(Moves.pack(cell, target));
+                    }
+                }
+            }
+
+            int[] buffer = new int[Moves.MAX_MOVES];
+            int count = board.generateLegalMoves(color, buffer);
+            Set<Integer> actual = new HashSet<>();
+            for (int idx = 0; idx < count; idx++) {
+                actual.add(buffer[idx]);
+            }
+            assertEquals(expected.size(), count);
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void test_not_in_check_in_standard_setup() {
+        assertFalse(Board.standardSetup().isInCheck(Color.WHITE));
+        assertFalse(Board.standardSetup().isInCheck(Color.BLACK));
+    }
+
+    @Test
+    public void test_in_check_from_each_piece_type() {
+        Board board = BoardUtils.setupBoard(b -> BoardUtils.addKings(b, "e4", "a8"));
+        assertFalse(board.isInCheck(Color.WHITE));
+
+        Map<String, Piece> attackers = new HashMap<>();
+        attackers.put("d5", BLACK_PAWN);
+        attackers.put("f6", BLACK_KNIGHT);
+        attackers.put("h7", BLACK_BISHOP);
+        attackers.put("e8", BLACK_ROOK);
+        attackers.put("b4", BLACK_QUEEN);
+        for (Map.Entry<String, Piece> attacker : attackers.entrySet()) {
+            put(board, attacker.getKey(), attacker.getValue());
+            assertTrue("Expected check from " + attacker.getValue(), board.isInCheck(Color.WHITE));
+            put(board, attacker.getKey(), null);
+        }
+    }
+
+    @Test
+    public void test_not_in_check_when_attack_is_blocked_or_from_wrong_direction() {
+        Board board = BoardUtils.setupBoard(b -> {
+            BoardUtils.addKings(b, "e4", "a8");
+            b.put("e8", BLACK_ROOK);
+            b.put("e6", WHITE_PAWN);
+            b.put("d3", BLACK_PAWN);
+            b.put("g6", BLACK_BISHOP);
+            b.put("f5", BLACK_KNIGHT);
+        });
+        assertFalse(board.isInCheck(Color.WHITE));
+        assertFalse(board.isInCheck(Color.BLACK));
+    }
+
+    @Test
+    public void test_has_legal_move() {
+        Board board = BoardUtils.setupBoard(b -> {
+            BoardUtils.addKings(b, "a1", "h8");
+            b.put("g6", WHITE_ROOK);
+            b.put("a7", WHITE_ROOK);
+        });
+        assertTrue(board.hasLegalMove(Color.WHITE));
+        assertFalse(board.hasLegalMove(Color.BLACK));
+
+        put(board, "g6", null);
+        assertTrue(board.hasLegalMove(Color.BLACK));
+    }
+
+    @Test
+    public void test_piece_cells_follow_moves() {
+        Board board = BoardUtils.setupBoard(b -> {
+            BoardUtils.addKings(b, "e1", "e8");
+            b.put("d4", WHITE_KNIGHT);
+            b.put("f6", BLACK_PAWN);
+        });
+        move(board, "d4", "f5");
+        move(board, "e8", "d8");
+
+        int[] cells = new int[64];
+        assertEquals(2, board.getPieceCells(Color.WHITE, cells));
+        assertEquals(convert("e1"), cells[0]);
+        assertEquals(convert("f5"), cells[1]);
+        assertEquals(2, board.getPieceCount(Color.BLACK));
+        assertEquals(convert("d8"), board.getKingCell(Color.BLACK));
+
+        put(board, "e1", null);
+        assertEquals(1, board.getPieceCount(Color.WHITE));
+        assertEquals(-1, board.getKingCell(Color.WHITE));
+    }
+
+    @Test
+    public void test_copy_is_equal_but_independent() {
+        Board board = Board.standardSetup();
+        move(board, "e2", "e4");
+        Board copy = board.copy();
+        assertEquals(board, copy);
+        assertEquals(board.getZobristKey(), copy.getZobristKey());
+        assertEquals(board.getAttackMap(Color.WHITE), copy.getAttackMap(Color.WHITE));
+
+        move(copy, "d7", "d5");
+        move(copy, "e4", "d5");
+        assertEquals(Optional.of(WHITE_PAWN), get(board, "e4"));
+        assertEquals(Optional.of(BLACK_PAWN), get(board, "d7"));
+        assertNotEquals(board, copy);
+        assertTrue(copy.isAttacked(convert("e6"), Color.WHITE));
+        assertFalse(board.isAttacked(convert("e6"), Color.WHITE));
+    }
+
+    @Test
+    public void test_copy_from_overwrites_position() {
+        Board source = Board.standardSetup();
+        move(source, "g1", "f3");
+        Board target = BoardUtils.setupBoard(b -> BoardUtils.addKings(b, "a1", "h8"));
+        target.makeMove(Moves.pack(convert("a1"), convert("a2")));
+
+        target.copyFrom(source);
+        assertEquals(source, target);
+        assertEquals(source.getZobristKey(), target.getZobristKey());
+        assertEquals(source.getAttackMap(Color.BLACK), target.getAttackMap(Color.BLACK));
+
+        // The copy has nothing to undo, and moving on it leaves the source alone
+        target.makeMove(Moves.pack(convert("f3"), convert("e5")));
+        target.unmakeMove();
+        assertEquals(source, target);
+        move(target, "e2", "e4");
+        assertFalse(get(source, "e4").isPresent());
+    }
+
+    @Test
+    public void test_has_non_pawn_material() {
+        Board board = BoardUtils.setupBoard(b -> BoardUtils.addKings(b, "e1", "e8"));
+        board.put(convert("d2"), WHITE_PAWN);
+        board.put(convert("d7"), BLACK_PAWN);
+        assertFalse(board.hasNonPawnMaterial(Color.WHITE));
+        assertFalse(board.hasNonPawnMaterial(Color.BLACK));
+
+        board.put(convert("b8"), BLACK_KNIGHT);
+        assertFalse(board.hasNonPawnMaterial(Color.WHITE));
+        assertTrue(board.hasNonPawnMaterial(Color.BLACK));
+    }
+
+    @Test
+    public void test_make_move_moves_piece() {
+        Board board = Board.standardSetup();
+        board.makeMove(Moves.pack(convert("e2"), convert("e4")));
+        assertEquals(Optional.of(WHITE_PAWN), get(board, "e4"));
+        assertFalse(get(board, "e2").isPresent());
+    }
+
+    @Test
+    public void test_unmake_move_restores_captured_piece() {
+        Board board = BoardUtils.setupBoard(b -> {
+            BoardUtils.addKings(b, "a1", "h8");
+            b.put("c3", WHITE_BISHOP);
+            b.put("f6", BLACK_ROOK);
+        });
+        board.makeMove(Moves.pack(convert("c3"), convert("f6")));
+        assertEquals(Optional.of(WHITE_BISHOP), get(board, "f6"));
+
+        board.unmakeMove();
+        assertBoard(board, expected -> {
+            BoardUtils.addKings(expected, "a1", "h8");
+            expected.put("c3", WHITE_BISHOP);
+            expected.put("f6", BLACK_ROOK);
+        });
+        assertTrue(board.isAttacked(convert("f6"), Color.WHITE));
+    }
+
+    @Test
+    public void test_unmake_moves_in_reverse_order() {
+        Board board = Board.standardSetup();
+        Board reference = Board.standardSetup();
+        int[] buffer = new int[Moves.MAX_MOVES];
+        Random random = new Random(42);
+        Color color = Color.WHITE;
+        int played = 0;
+        for (; played < 300; played++) {
+            int count = board.generateLegalMoves(color, buffer);
+            if (count == 0) {
+                break;
+            }
+            board.makeMove(buffer[random.nextInt(count)]);
+            color = color.inverse();
+        }
+
+        for (; played > 0; played--) {
+            board.unmakeMove();
+        }
+        assertBoard(board, expected -> {
+            for (int cell = 0; cell < 64; cell++) {
+                final String coord = convert(cell);
+                reference.get(cell).ifPresent(piece -> expected.put(coord, piece));
+            }
+        });
+        assertEquals(reference.getAttackMap(Color.WHITE), board.getAttackMap(Color.WHITE));
+        assertEquals(reference.getAttackMap(Color.BLACK), board.getAttackMap(Color.BLACK));
+    }
+
+    @Test
+    public void test_empty_board_has_zero_zobrist_key() {
+        assertEquals(0, new Board().getZobristKey());
+    }
+
+    @Test
+    public void test_zobrist_key_is_maintained_incrementally() {
+        Board board = Board.standardSetup();
+        int[] buffer = new int[Moves.MAX_MOVES];
+        Random random = new Random(7);
+        Color color = Color.WHITE;
+        for (int played = 0; played < 200; played++) {
+            int count = board.generateLegalMoves(color, buffer);
+            if (count == 0) {
+                break;
+            }
+            board.makeMove(buffer[random.nextInt(count)]);
+            assertEquals(board.computeZobristKey(), board.getZobristKey());
+            color = color.inverse();
+        }
+
+        board.put(convert("d4"), BLACK_QUEEN);
+        assertEquals(board.computeZobristKey(), board.getZobristKey());
+    }
+
+    @Test
+    public void test_material_and_piece_square_scores_are_maintained_incrementally() {
+        Board board = Board.standardSetup();
+        assertEquals(43, board.getMaterial(Color.WHITE));
+        assertEquals(board.getPieceSquareScore(Color.WHITE), board.getPieceSquareScore(Color.BLACK));
+
+        int[] buffer = new int[Moves.MAX_MOVES];
+        Random random = new Random(11);
+        Color color = Color.WHITE;
+        int played = 0;
+        for (; played < 200; played++) {
+            int count = board.generateLegalMoves(color, buffer);
+            if (count == 0) {
+                break;
+            }
+            board.makeMove(buffer[random.nextInt(count)]);
+            for (Color side : Color.values()) {
+                assertEquals(board.computeMaterial(side), board.getMaterial(side));
+                assertEquals(board.computePieceSquareScore(side), board.getPieceSquareScore(side));
+            }
+            color = color.inverse();
+        }
+
+        for (; played > 0; played--) {
+            board.unmakeMove();
+        }
+        assertEquals(43, board.getMaterial(Color.BLACK));
+        assertEquals(Board.standardSetup().getPieceSquareScore(Color.BLACK), board.getPieceSquareScore(Color.BLACK));
+
+        board.put(convert("d4"), BLACK_QUEEN);
+        assertEquals(board.computeMaterial(Color.BLACK), board.getMaterial(Color.BLACK));
+        assertEquals(board.computePieceSquareScore(Color.BLACK), board.getPieceSquareScore(Color.BLACK));
+
+        Board copy = new Board();
+        copy.copyFrom(board);
+        assertEquals(board.getMaterial(Color.BLACK), copy.getMaterial(Color.BLACK));
+        copy.clear();
+        assertEquals(0, copy.getMaterial(Color.BLACK));
+        assertEquals(0, copy.getPieceSquareScore(Color.WHITE));
+    }
+
+    @Test
+    public void test_pawn_key_is_maintained_incrementally() {
+        Board board = Board.standardSetup();
+        long startingPawnKey = board.getPawnKey();
+        move(board, "g1", "f3");
+        assertEquals(startingPawnKey, board.getPawnKey());
+        move(board, "e2", "e4");
+        assertNotEquals(startingPawnKey, board.getPawnKey());
+
+        int[] buffer = new int[Moves.MAX_MOVES];
+        Random random = new Random(13);
+        Color color = Color.BLACK;
+        for (int played = 0; played < 200; played++) {
+            int count = board.generateLegalMoves(color, buffer);
+            if (count == 0) {
+                break;
+            }
+            board.makeMove(buffer[random.nextInt(count)]);
+            assertEquals(board.computePawnKey(), board.getPawnKey());
+            color = color.inverse();
+        }
+
+        Board copy = new Board();
+        copy.copyFrom(board);
+        assertEquals(board.getPawnKey(), copy.getPawnKey());
+        copy.clear();
+        assertEquals(0, copy.getPawnKey());
+    }
+
+    @Test
+    public void test_transposed_positions_have_equal_zobrist_keys() {
+        Board first = Board.standardSetup();
+        move(first, "g1", "f3");
+        move(first, "b8", "c6");
+        move(first, "b1", "c3");
+
+        Board second = Board.standardSetup();
+        move(second, "b1", "c3");
+        move(second, "b8", "c6");
+        move(second, "g1", "f3");
+
+        assertEquals(first.getZobristKey(), second.getZobristKey());
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertNotEquals(Board.standardSetup().getZobristKey(), first.getZobristKey());
+    }
+
+    @Test
+    public void test_move_onto_same_cell_empties_it() {
+        Board board = Board.standardSetup();
+        board.move(convert("b1"), convert("b1"));
+        assertFalse(get(board, "b1").isPresent());
+        assertEquals(board.computeZobristKey(), board.getZobristKey());
+        assertEquals(40, board.getMaterial(Color.WHITE));
+        assertEquals(board.computeMaterial(Color.WHITE), board.getMaterial(Color.WHITE));
+    }
+
+    @Test
+    public void test_attack_maps_in_standard_setup() {
+        Board board = Board.standardSetup();
+        assertEquals(0xffff7eL, board.getAttackMap(Color.WHITE));
+        assertTrue(board.isAttacked(convert("f3"), Color.WHITE));
+        assertFalse(board.isAttacked(convert("a1"), Color.WHITE));
+        assertEquals(3, board.getAttackerCount(convert("f3"), Color.WHITE));
+        assertTrue(board.isAttacked(convert("f6"), Color.BLACK));
+        assertFalse(board.isAttacked(convert("e4"), Color.BLACK));
+    }
+
+    @Test
+    public void test_attack_maps_are_updated_as_pieces_change() {
+        Random random = new Random(1234);
+        Piece[] pieceTypes = Piece.values();
+        Board board = Board.standardSetup();
+        for (int step = 0; step < 2000; step++) {
+            int from = random.nextInt(64);
+            int to = random.nextInt(64);
+            if (random.nextInt(4) == 0) {
+                board.put(to, random.nextBoolean() ? null : pieceTypes[random.nextInt(pieceTypes.length)]);
+            } else {
+                board.move(from, to);
+            }
+
+            assertEquals(board.computeZobristKey(), board.getZobristKey());
+            for (Color color : Color.values()) {
+                assertEquals(board.computeMaterial(color), board.getMaterial(color));
+                assertEquals(board.computePieceSquareScore(color), board.getPieceSquareScore(color));
+                for (int cell = 0; cell < 64; cell++) {
+                    int expected = countAttackers(board, cell, color);
+                    assertEquals(expected, board.getAttackerCount(cell, color));
+                    assertEquals(expected > 0, board.isAttacked(cell, color));
+                }
+            }
+        }
+    }
+
+    private static int countAttackers(Board board, int cell, Color color) {
+        long occupied = 0;
+        for (int idx = 0; idx < 64; idx++) {
+            if (board.get(idx).isPresent()) {
+                occupied |= Bitboards.bit(idx);
+            }
+        }
+
+        int count = 0;
+        for (int idx = 0; idx < 64; idx++) {
+            Optional<Piece> piece = board.get(idx);
+            if (!piece.isPresent() || piece.get().getColor() != color) {
+                continue;
+            }
+
+            long attacks;
+            switch (piece.get().getType()) {
+                case PAWN: attacks = Bitboards.pawnAttacks(color, idx); break;
+                case KNIGHT: attacks = Bitboards.knightAttacks(idx); break;
+                case BISHOP: attacks = Bitboards.bishopAttacks(idx, occupied); break;
+                case ROOK: attacks = Bitboards.rookAttacks(idx, occupied); break;
+                case QUEEN: attacks = Bitboards.queenAttacks(idx, occupied); break;
+                default: attacks = Bitboards.kingAttacks(idx); break;
+            }
+            if ((attacks & Bitboards.bit(cell)) != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
     private static void assertBoard(Board board, Consumer<Map<String, Piece>> setup) {
         Map<String, Piece> expected = new HashMap<>();
         setup.accept(expected);
@@ -0,0 +1,112 @@
+package com.kopieczek.chester.core;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Optional;
+
+import static com.kopieczek.chester.core.CoordConverter.convert;
+import static com.kopieczek.chester.core.Piece.*;
+import static org.junit.Assert.*;
+
+public class TestFen {
+    @Test
+    public void test_parse_standard_setup() {
+        Game game = Fen.parse(Fen.STANDARD_SETUP);
+        assertEquals(Board.standardSetup(), game.getBoard());
+        assertEquals(Color.WHITE, game.getActivePlayer());
+        assertEquals(Board.standardSetup().getAttackMap(Color.WHITE), game.getBoard().getAttackMap(Color.WHITE));
+        assertEquals(Board.standardSetup().getAttackMap(Color.BLACK), game.getBoard().getAttackMap(Color.BLACK));
+    }
+
+    @Test
+    public void test_write_standard_setup() {
+        assertEquals(Fen.STANDARD_SETUP, Fen.write(new Game(Board.standardSetup())));
+    }
+
+    @Test
+    public void test_parse_sparse_position_with_black_to_move() {
+        Game game = Fen.parse("7k/8/8/3q4/8/2N5/8/K7 b - - 3 40");
+        assertEquals(Color.BLACK, game.getActivePlayer());
+        assertEquals(BoardUtils.setupBoard(b -> {
+            BoardUtils.addKings(b, "a1", "h8");
+            b.put("d5", BLACK_QUEEN);
+            b.put("c3", WHITE_KNIGHT);
+        }), game.getBoard());
+    }
+
+    @Test
+    public void test_round_trip() {
+        String fen = "r1bqkb1r/pppp1ppp/2n2n2/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w - - 0 1";
+        assertEquals(fen, Fen.write(Fen.parse(fen)));
+    }
+
+    @Test
+    public void test_parse_without_optional_fields() {
+        Game game = Fen.parse("4k3/8/8/8/8/8/4P3/4K3 b");
+        assertEquals(Color.BLACK, game.getActivePlayer());
+        assertEquals(Optional.of(WHITE_PAWN), game.getBoard().get(convert("e2")));
+    }
+
+    @Test
+    public void test_parse_into_replaces_existing_pieces() {
+        Board board = Board.standardSetup();
+        Fen.parseInto("4k3/8/8/8/8/8/8/4K3 w - - 0 1", board);
+        assertEquals(2, board.getPieceCount(Color.WHITE) + board.getPieceCount(Color.BLACK));
+        assertEquals(board.computeZobristKey(), board.getZobristKey());
+    }
+
+    @Test
+    public void test_board_is_left_empty_after_invalid_record() {
+        Board board = Board.standardSetup();
+        try {
+            Fen.parseInto("rnbqkbnr/ppppXppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1", board);
+            fail("Expected the record to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertEquals(new Board(), board);
+            assertEquals(0, board.getAttackMap(Color.BLACK));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_rank_too_long_is_rejected() {
+        Fen.parse("rnbqkbnrr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_missing_rank_is_rejected() {
+        Fen.parse("rnbqkbnr/pppppppp/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_unknown_piece_is_rejected() {
+        Fen.parse("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNX w - - 0 1");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_missing_side_to_move_is_rejected() {
+        Fen.parse("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR");
+    }
+
+    @Test
+    public void test_reader_streams_records() throws IOException {
+        String file = Fen.STANDARD_SETUP + "\r\n" +
+                      "\n" +
+                      "# comment\n" +
+                      "7k/8/8/8/8/8/8/K7 b - - bm Kg8; id \"test\";";
+        Board board = new Board();
+        try (FenReader reader = new FenReader(new StringReader(file))) {
+            assertTrue(reader.next(board));
+            assertEquals(Board.standardSetup(), board);
+            assertEquals(Color.WHITE, reader.getActivePlayer());
+
+            assertTrue(reader.next(board));
+            assertEquals(2, board.getPieceCount(Color.WHITE) + board.getPieceCount(Color.BLACK));
+            assertEquals(Color.BLACK, reader.getActivePlayer());
+            assertTrue(reader.getLine().toString().endsWith("id \"test\";"));
+
+            assertFalse(reader.next(board));
+        }
+    }
+}
@@ -122,4 +122,31 @@ public class TestGame {
         game.move(convert("a2"), convert("a7"));
         assertEquals(GameState.STALEMATE, game.getState());
     }
+
+    @Test
+    public void test_zobrist_key_includes_side_to_move() {
+        Game game = new Game(Board.standardSetup());
+        long whiteToMove = game.getZobristKey();
+        game.move(convert("g1"), convert("f3"));
+        game.move(convert("g8"), convert("f6"));
+        game.move(convert("f3"), convert("g1"));
+        assertNotEquals(whiteToMove, game.getZobristKey());
+
+        game.move(convert("f6"), convert("g8"));
+        assertEquals(whiteToMove, game.getZobristKey());
+    }
+
+    @Test
+    public void test_game_state_follows_changes_made_directly_to_board() {
+        Game game = new Game(BoardUtils.setupBoard(b -> {
+            BoardUtils.addKings(b, "a1", "h8");
+            b.put("a7", Piece.WHITE_ROOK);
+            b.put("b7", Piece.WHITE_QUEEN);
+        }));
+        game.move(convert("b7"), convert("b8"));
+        assertEquals(GameState.WHITE_WINS, game.getState());
+
+        game.getBoard().put(convert("a7"), null);
+        assertEquals(GameState.PLAYING, game.getState());
+    }
 }
@@ -0,0 +1,101 @@
+package com.kopieczek.chester.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.kopieczek.chester.core.CoordConverter.convert;
+import static org.junit.Assert.*;
+
+public class TestPackedPosition {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void test_round_trip_standard_setup() {
+        ByteBuffer buffer = ByteBuffer.allocate(PackedPosition.RECORD_SIZE);
+        PackedPosition.encode(Board.standardSetup(), Color.WHITE, buffer);
+        assertEquals(PackedPosition.RECORD_SIZE, buffer.position());
+
+        buffer.flip();
+        Board decoded = new Board();
+        assertEquals(Color.WHITE, PackedPosition.decode(buffer, decoded));
+        assertEquals(Board.standardSetup(), decoded);
+        assertEquals(Board.standardSetup().getAttackMap(Color.BLACK), decoded.getAttackMap(Color.BLACK));
+    }
+
+    @Test
+    public void test_round_trip_preserves_side_to_move() {
+        ByteBuffer buffer = ByteBuffer.allocate(PackedPosition.RECORD_SIZE);
+        Board board = Fen.parse("7k/8/8/3q4/8/2N5/8/K7 b").getBoard();
+        PackedPosition.encode(board, Color.BLACK, buffer, 0);
+
+        Board decoded = Board.standardSetup();
+        assertEquals(Color.BLACK, PackedPosition.decode(buffer, 0, decoded));
+        assertEquals(board, decoded);
+    }
+
+    @Test
+    public void test_empty_board_round_trips() {
+        ByteBuffer buffer = ByteBuffer.allocate(PackedPosition.RECORD_SIZE);
+        PackedPosition.encode(new Board(), Color.WHITE, buffer, 0);
+        Board decoded = Board.standardSetup();
+        PackedPosition.decode(buffer, 0, decoded);
+        assertEquals(new Board(), decoded);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_more_than_32_pieces_is_rejected() {
+        Board board = Board.standardSetup();
+        board.put(convert("e4"), Piece.WHITE_QUEEN);
+        PackedPosition.encode(board, Color.WHITE, ByteBuffer.allocate(PackedPosition.RECORD_SIZE));
+    }
+
+    @Test
+    public void test_write_and_read_file() throws IOException {
+        List<Board> boards = new ArrayList<>();
+        List<Color> players = new ArrayList<>();
+        Board board = Board.standardSetup();
+        Color color = Color.WHITE;
+        int[] moves = new int[Moves.MAX_MOVES];
+        Random random = new Random(99);
+        for (int ply = 0; ply < 100; ply++) {
+            boards.add(board.copy());
+            players.add(color);
+            int count = board.generateLegalMoves(color, moves);
+            if (count == 0) {
+                break;
+            }
+            board.makeMove(moves[random.nextInt(count)]);
+            color = color.inverse();
+        }
+
+        Path path = folder.newFile("positions.bin").toPath();
+        try (PackedPositionWriter writer = PackedPositionWriter.open(path)) {
+            for (int idx = 0; idx < boards.size(); idx++) {
+                writer.write(boards.get(idx), players.get(idx));
+            }
+        }
+
+        try (PackedPositionFile file = PackedPositionFile.open(path)) {
+            assertEquals(boards.size(), file.size());
+            Board decoded = new Board();
+            for (int idx = 0; idx < boards.size(); idx++) {
+                assertTrue(file.next(decoded));
+                assertEquals(boards.get(idx), decoded);
+                assertEquals(players.get(idx), file.getActivePlayer());
+            }
+            assertFalse(file.next(decoded));
+
+            assertEquals(players.get(17), file.read(17, decoded));
+            assertEquals(boards.get(17), decoded);
+        }
+    }
+}
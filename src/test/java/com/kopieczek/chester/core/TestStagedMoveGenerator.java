@@ -0,0 +1,135 @@
+package com.kopieczek.chester.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.kopieczek.chester.core.CoordConverter.convert;
+import static com.kopieczek.chester.core.Piece.*;
+import static org.junit.Assert.*;
+
+public class TestStagedMoveGenerator {
+    @Test
+    public void test_yields_every_legal_move_exactly_once() {
+        Board board = sharpPosition();
+        StagedMoveGenerator generator = new StagedMoveGenerator(board);
+        generator.reset(Color.WHITE, move("f3", "f7"), move("a2", "a3"), move("e2", "e5"));
+
+        List<Integer> staged = drain(generator);
+        assertEquals(legalMoves(board, Color.WHITE), new HashSet<>(staged));
+        assertEquals(staged.size(), new HashSet<>(staged).size());
+    }
+
+    @Test
+    public void test_yields_moves_in_stage_order() {
+        Board board = sharpPosition();
+        StagedMoveGenerator generator = new StagedMoveGenerator(board);
+        generator.reset(Color.WHITE, move("h1", "h2"), move("a2", "a3"), Moves.NONE);
+
+        List<Integer> staged = drain(generator);
+        assertEquals("Hash move should come first", move("h1", "h2"), (int) staged.get(0));
+        assertEquals("Knight takes rook is the best capture", move("d4", "e6"), (int) staged.get(1));
+        assertEquals("Rook takes rook is an even trade", move("h1", "h8"), (int) staged.get(2));
+        assertEquals("Queen takes undefended pawn is still winning", move("f3", "b7"), (int) staged.get(3));
+        assertEquals("Killer should follow the winning captures", move("a2", "a3"), (int) staged.get(4));
+        assertEquals("Queen takes defended rook is losing", move("c4", "e6"), (int) staged.get(staged.size() - 2));
+        assertEquals("Queen takes defended pawn should come last", move("f3", "f7"), (int) staged.get(staged.size() - 1));
+    }
+
+    @Test
+    public void test_captures_only_mode() {
+        Board board = sharpPosition();
+        StagedMoveGenerator generator = new StagedMoveGenerator(board);
+        generator.resetForCaptures(Color.WHITE, move("a2", "a3"));
+
+        Set<Integer> expected = new HashSet<>();
+        int[] buffer = new int[Moves.MAX_MOVES];
+        int count = board.generateLegalCaptures(Color.WHITE, buffer);
+        for (int idx = 0; idx < count; idx++) {
+            expected.add(buffer[idx]);
+        }
+
+        List<Integer> staged = drain(generator);
+        assertEquals(expected, new HashSet<>(staged));
+        assertEquals(expected.size(), staged.size());
+    }
+
+    @Test
+    public void test_quiet_moves_follow_history_scores() {
+        Board board = Board.standardSetup();
+        int[] history = new int[StagedMoveGenerator.HISTORY_SIZE];
+        history[StagedMoveGenerator.getHistoryIndex(Color.WHITE, move("g1", "f3"))] = 10;
+        history[StagedMoveGenerator.getHistoryIndex(Color.WHITE, move("e2", "e4"))] = 20;
+        history[StagedMoveGenerator.getHistoryIndex(Color.BLACK, move("a2", "a3"))] = 30;
+        StagedMoveGenerator generator = new StagedMoveGenerator(board, history);
+        generator.reset(Color.WHITE, Moves.NONE, Moves.NONE, Moves.NONE);
+
+        List<Integer> staged = drain(generator);
+        assertEquals(20, staged.size());
+        assertEquals(move("e2", "e4"), (int) staged.get(0));
+        assertEquals(move("g1", "f3"), (int) staged.get(1));
+    }
+
+    @Test
+    public void test_can_be_moved_to_another_board() {
+        StagedMoveGenerator generator = new StagedMoveGenerator(sharpPosition());
+        generator.reset(Color.WHITE, Moves.NONE, Moves.NONE, Moves.NONE);
+        drain(generator);
+
+        Board board = Board.standardSetup();
+        generator.setBoard(board);
+        generator.reset(Color.BLACK, Moves.NONE, Moves.NONE, Moves.NONE);
+        assertEquals(legalMoves(board, Color.BLACK), new HashSet<>(drain(generator)));
+    }
+
+    @Test
+    public void test_illegal_suggestions_are_ignored() {
+        Board board = Board.standardSetup();
+        StagedMoveGenerator generator = new StagedMoveGenerator(board);
+        generator.reset(Color.WHITE, move("e2", "e5"), move("e7", "e5"), move("d1", "d3"));
+
+        List<Integer> staged = drain(generator);
+        assertEquals(20, staged.size());
+        assertEquals(legalMoves(board, Color.WHITE), new HashSet<>(staged));
+    }
+
+    private static Board sharpPosition() {
+        return BoardUtils.setupBoard(b -> {
+            BoardUtils.addKings(b, "g1", "g8");
+            b.put("c4", WHITE_QUEEN);
+            b.put("f3", WHITE_QUEEN);
+            b.put("d4", WHITE_KNIGHT);
+            b.put("a2", WHITE_PAWN);
+            b.put("h1", WHITE_ROOK);
+            b.put("e6", BLACK_ROOK);
+            b.put("f7", BLACK_PAWN);
+            b.put("b7", BLACK_PAWN);
+            b.put("h8", BLACK_ROOK);
+        });
+    }
+
+    private static List<Integer> drain(StagedMoveGenerator generator) {
+        List<Integer> moves = new ArrayList<>();
+        for (int move = generator.next(); move != Moves.NONE; move = generator.next()) {
+            moves.add(move);
+        }
+        return moves;
+    }
+
+    private static Set<Integer> legalMoves(Board board, Color color) {
+        int[] buffer = new int[Moves.MAX_MOVES];
+        int count = board.generateLegalMoves(color, buffer);
+        Set<Integer> moves = new HashSet<>();
+        for (int idx = 0; idx < count; idx++) {
+            moves.add(buffer[idx]);
+        }
+        return moves;
+    }
+
+    private static int move(String from, String to) {
+        return Moves.pack(convert(from), convert(to));
+    }
+}
@@ -0,0 +1,65 @@
+package com.kopieczek.chester.perft;
+
+import com.kopieczek.chester.core.Board;
+import com.kopieczek.chester.core.Color;
+import com.kopieczek.chester.core.Moves;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.kopieczek.chester.core.CoordConverter.convert;
+import static com.kopieczek.chester.core.Piece.*;
+import static org.junit.Assert.assertEquals;
+
+public class TestPerft {
+    // Castling, en passant and promotion first appear at depth 5 from the opening, so until then the counts must
+    // agree with the standard published values.
+    @Test
+    public void test_perft_from_standard_setup() {
+        Perft perft = new Perft(Board.standardSetup(), 4);
+        assertEquals(1, perft.perft(Color.WHITE, 0));
+        assertEquals(20, perft.perft(Color.WHITE, 1));
+        assertEquals(400, perft.perft(Color.WHITE, 2));
+        assertEquals(8902, perft.perft(Color.WHITE, 3));
+        assertEquals(197281, perft.perft(Color.WHITE, 4));
+    }
+
+    @Test
+    public void test_perft_leaves_board_unchanged() {
+        Board board = Board.standardSetup();
+        new Perft(board, 3).perft(Color.WHITE, 3);
+        assertEquals(Board.standardSetup(), board);
+    }
+
+    @Test
+    public void test_divide_splits_standard_setup_by_root_move() {
+        Map<Integer, Long> divide = Perft.divide(Board.standardSetup(), Color.WHITE, 3, new ForkJoinPool(2));
+        assertEquals(20, divide.size());
+        assertEquals(Long.valueOf(600), divide.get(Moves.pack(convert("e2"), convert("e4"))));
+        assertEquals(Long.valueOf(440), divide.get(Moves.pack(convert("g1"), convert("f3"))));
+        assertEquals(8902, divide.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    public void test_parallel_perft_matches_serial_perft() {
+        Board board = Board.standardSetup();
+        board.put(convert("d2"), null);
+        board.put(convert("e7"), null);
+        board.put(convert("d4"), BLACK_KNIGHT);
+        board.put(convert("c5"), WHITE_BISHOP);
+
+        long serial = new Perft(board, 4).perft(Color.BLACK, 4);
+        assertEquals(serial, Perft.perft(board, Color.BLACK, 4, new ForkJoinPool(4)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_perft_rejects_negative_depth() {
+        new Perft(Board.standardSetup(), 3).perft(Color.WHITE, -1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_parallel_perft_rejects_negative_depth() {
+        Perft.perft(Board.standardSetup(), Color.WHITE, -2, new ForkJoinPool(2));
+    }
+}